@@ -0,0 +1,123 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.cli;
+
+import io.github.jeddict.jcode.task.ITaskSupervisor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Task supervisor of the command-line generator, the messages are logged line
+ * by line and the failure of task is recorded for the exit status.
+ *
+ * @author Gaurav Gupta
+ */
+final class LogTaskSupervisor implements ITaskSupervisor {
+
+    private final Logger logger;
+
+    private final StringBuilder line = new StringBuilder();
+
+    private volatile boolean failed;
+
+    LogTaskSupervisor(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public boolean start(int itemTotal) {
+        return true;
+    }
+
+    @Override
+    public boolean start(int contributor, int itemTotal) {
+        return true;
+    }
+
+    @Override
+    public int increment() {
+        return 1;
+    }
+
+    @Override
+    public int increment(int step) {
+        return 1;
+    }
+
+    @Override
+    public boolean proceed() {
+        return true;
+    }
+
+    @Override
+    public boolean proceed(int step) {
+        return true;
+    }
+
+    @Override
+    public void log() {
+        log("", true);
+    }
+
+    @Override
+    public void log(int level) {
+        log();
+    }
+
+    @Override
+    public void log(String msg) {
+        log(msg, false);
+    }
+
+    @Override
+    public void log(int level, String msg) {
+        log(msg);
+    }
+
+    @Override
+    public synchronized void log(String msg, boolean newline) {
+        line.append(msg);
+        if (newline) {
+            logger.log(Level.INFO, line.toString());
+            line.setLength(0);
+        }
+    }
+
+    @Override
+    public void log(String msg, int padding) {
+        log(msg);
+    }
+
+    @Override
+    public void log(int level, String msg, boolean newline) {
+        log(msg, newline);
+    }
+
+    @Override
+    public boolean cancel() {
+        return true;
+    }
+
+    @Override
+    public void fail() {
+        failed = true;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+}
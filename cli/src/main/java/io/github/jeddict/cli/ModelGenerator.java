@@ -0,0 +1,380 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.cli;
+
+import io.github.jeddict.jcode.ApplicationConfigData;
+import io.github.jeddict.jcode.util.GenerationContext;
+import io.github.jeddict.jcode.util.GenerationManifest;
+import io.github.jeddict.jcode.util.GenerationProfile;
+import static io.github.jeddict.jcode.util.ProjectHelper.getFolderSourceGroup;
+import static io.github.jeddict.jpa.modeler.initializer.JPAModelerUtil.getEntityMapping;
+import io.github.jeddict.jpa.spec.EntityMappings;
+import io.github.jeddict.orm.generator.ISourceCodeGeneratorFactory;
+import io.github.jeddict.orm.generator.SourceCodeGeneratorType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import javax.xml.bind.JAXBException;
+import org.netbeans.api.project.FileOwnerQuery;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.SourceGroup;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.Lookup;
+
+/**
+ * Headless generator of the JPA classes of .jpa models, runs the
+ * {@link ISourceCodeGeneratorFactory JPA source code generator} and its module
+ * generators without IDE.
+ *
+ * <pre>
+ * java -cp &lt;jeddict-cli classpath&gt; io.github.jeddict.cli.ModelGenerator
+ *      [-t &lt;source root&gt;] [-j &lt;jobs&gt;] [-p &lt;parallelism&gt;] [--full]
+ *      &lt;model.jpa&gt;[=&lt;source root&gt;] ...
+ * </pre>
+ *
+ * or from the jeddict-cli module, with the <code>jeddict.*</code> system
+ * properties in <code>generator.jvmArgs</code> :
+ *
+ * <pre>
+ * mvn exec:exec -Dgenerator.args="-t &lt;source root&gt; &lt;model.jpa&gt;"
+ * </pre>
+ *
+ * The target source root must be a java source root of a project (pom.xml).
+ * Generator state (classes repository and compiler config) is global per JVM,
+ * so the models are generated concurrently by up to <code>jobs</code> worker
+ * processes, models of the same source root are generated sequentially by the
+ * same worker. The <code>jeddict.*</code>
+ * system properties are passed to the workers.
+ *
+ * The exit status is 0 on success, 1 if generation of any model is failed or
+ * any error is reported while generating, and 2 for the invalid arguments.
+ *
+ * @author Gaurav Gupta
+ */
+public final class ModelGenerator {
+
+    private static final Logger LOG = Logger.getLogger(ModelGenerator.class.getName());
+
+    private static final String USAGE = "Usage : ModelGenerator [options] <model.jpa>[=<source root>] ...\n"
+            + "  -t, --target <dir>          source root of the models without explicit source root\n"
+            + "  -j, --jobs <n>              number of models generated concurrently, default is available processors\n"
+            + "  -p, --parallelism <n>       number of classes of a model generated concurrently, default is 1\n"
+            + "  --full                      generate all files, ignore the generation manifest";
+
+    /**
+     * Models by source root.
+     */
+    private final Map<File, List<File>> models = new LinkedHashMap<>();
+
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Parallelism of the generation context, null for the configured
+     * parallelism.
+     */
+    private Integer parallelism;
+
+    private boolean full;
+
+    private ModelGenerator() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(execute(args));
+    }
+
+    /**
+     * Generates the models without exiting the JVM.
+     *
+     * @return the exit status, 2 for the invalid arguments
+     */
+    static int execute(String... args) {
+        try {
+            ModelGenerator generator = new ModelGenerator();
+            generator.parse(args);
+            return generator.run();
+        } catch (IllegalArgumentException ex) {
+            LOG.log(Level.SEVERE, "{0}\n{1}", new Object[]{ex.getMessage(), USAGE});
+            return 2;
+        }
+    }
+
+    private void parse(String[] args) {
+        File target = null;
+        List<String> modelArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-t":
+                case "--target":
+                    target = new File(getValue(args, ++i, arg));
+                    break;
+                case "-j":
+                case "--jobs":
+                    jobs = getIntValue(args, ++i, arg);
+                    break;
+                case "-p":
+                case "--parallelism":
+                    parallelism = getIntValue(args, ++i, arg);
+                    break;
+                case "--full":
+                    full = true;
+                    break;
+                default:
+                    if (arg.startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option : " + arg);
+                    }
+                    modelArgs.add(arg);
+            }
+        }
+        if (modelArgs.isEmpty()) {
+            throw new IllegalArgumentException("Model file not specified");
+        }
+        for (String modelArg : modelArgs) {
+            int separator = modelArg.lastIndexOf('=');
+            File model = new File(separator == -1 ? modelArg : modelArg.substring(0, separator));
+            File sourceRoot = separator == -1 ? target : new File(modelArg.substring(separator + 1));
+            if (!model.isFile()) {
+                throw new IllegalArgumentException("Model file not found : " + model);
+            }
+            if (sourceRoot == null) {
+                throw new IllegalArgumentException("Source root not specified : " + model);
+            }
+            models.computeIfAbsent(FileUtil.normalizeFile(sourceRoot), root -> new ArrayList<>())
+                    .add(FileUtil.normalizeFile(model));
+        }
+    }
+
+    private static String getValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Value not specified : " + option);
+        }
+        return args[index];
+    }
+
+    private static int getIntValue(String[] args, int index, String option) {
+        String value = getValue(args, index, option);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value of " + option + " : " + value);
+        }
+    }
+
+    /**
+     * @return the exit status, non-zero if generation of any model is failed
+     */
+    private int run() {
+        List<Map<File, List<File>>> batches = createBatches();
+        if (batches.size() < 2) {
+            return generate(models);
+        }
+        List<Process> workers = new ArrayList<>();
+        int status = 0;
+        for (Map<File, List<File>> batch : batches) {
+            try {
+                workers.add(startWorker(batch));
+            } catch (IOException ex) {
+                LOG.log(Level.SEVERE, "Unable to start worker : " + batch.values(), ex);
+                status = 1;
+            }
+        }
+        for (Process worker : workers) {
+            try {
+                if (worker.waitFor() != 0) {
+                    status = 1;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                workers.forEach(Process::destroy);
+                return 1;
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Distributes the source roots to the workers, largest first to the least
+     * loaded worker.
+     */
+    private List<Map<File, List<File>>> createBatches() {
+        int workerCount = Math.max(1, Math.min(jobs, models.size()));
+        List<Map<File, List<File>>> batches = new ArrayList<>();
+        int[] loads = new int[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            batches.add(new LinkedHashMap<>());
+        }
+        models.entrySet()
+                .stream()
+                .sorted(Comparator.comparingInt((Map.Entry<File, List<File>> entry) -> entry.getValue().size()).reversed())
+                .forEach(entry -> {
+                    int worker = 0;
+                    for (int i = 1; i < workerCount; i++) {
+                        if (loads[i] < loads[worker]) {
+                            worker = i;
+                        }
+                    }
+                    loads[worker] += entry.getValue().size();
+                    batches.get(worker).put(entry.getKey(), entry.getValue());
+                });
+        return batches;
+    }
+
+    private Process startWorker(Map<File, List<File>> batch) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        System.getProperties()
+                .stringPropertyNames()
+                .stream()
+                .filter(name -> name.startsWith("jeddict."))
+                .sorted()
+                .forEach(name -> command.add("-D" + name + '=' + System.getProperty(name)));
+        command.add(ModelGenerator.class.getName());
+        command.add("--jobs");
+        command.add("1");
+        if (parallelism != null) {
+            command.add("--parallelism");
+            command.add(String.valueOf(parallelism));
+        }
+        if (full) {
+            command.add("--full");
+        }
+        batch.forEach((sourceRoot, files) -> files.forEach(model -> command.add(model.getPath() + '=' + sourceRoot.getPath())));
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private int generate(Map<File, List<File>> batch) {
+        int status = 0;
+        for (Map.Entry<File, List<File>> entry : batch.entrySet()) {
+            for (File model : entry.getValue()) {
+                try {
+                    if (!generate(model, entry.getKey())) {
+                        status = 1;
+                    }
+                } catch (Exception ex) {
+                    LOG.log(Level.SEVERE, "Failed : " + model, ex);
+                    status = 1;
+                }
+            }
+        }
+        return status;
+    }
+
+    /**
+     * The generators report the errors of a file to the log (see
+     * {@link org.openide.util.Exceptions#printStackTrace(Throwable)}) and
+     * continue with the next file, so the errors logged while generating are
+     * counted.
+     *
+     * @return false if any error is reported while generating
+     */
+    private boolean generate(File model, File sourceRoot) throws IOException, JAXBException {
+        long start = System.currentTimeMillis();
+        EntityMappings entityMappings = getEntityMapping(model);
+
+        FileObject sourceRootObject = FileUtil.createFolder(sourceRoot);
+        Project project = FileOwnerQuery.getOwner(sourceRootObject);
+        if (project == null) {
+            throw new IOException("Project not found : " + sourceRoot);
+        }
+        SourceGroup sourceGroup = getFolderSourceGroup(sourceRootObject);
+        if (sourceGroup == null) {
+            throw new IOException("Source root not found in project : " + sourceRoot);
+        }
+
+        ApplicationConfigData configData = new ApplicationConfigData();
+        configData.setEntityMappings(entityMappings);
+        configData.setTargetProject(project);
+        configData.setTargetSourceGroup(sourceGroup);
+        configData.setTargetPackage(entityMappings.getProjectPackage());
+
+        GenerationProfile profile = GenerationProfile.start();
+        GenerationManifest manifest = GenerationManifest.open(project, full);
+        GenerationContext context = GenerationContext.getCurrent().withManifest(manifest);
+        if (parallelism != null) {
+            context = context.withParallelism(parallelism);
+        }
+        LogTaskSupervisor task = new LogTaskSupervisor(LOG);
+        ErrorCounter errorCounter = new ErrorCounter();
+        Logger rootLogger = Logger.getLogger("");
+        rootLogger.addHandler(errorCounter);
+        try (GenerationContext.Scope scope = context.bind()) {
+            Lookup.getDefault()
+                    .lookup(ISourceCodeGeneratorFactory.class)
+                    .getSourceGenerator(SourceCodeGeneratorType.JPA)
+                    .generate(task, configData);
+        } finally {
+            rootLogger.removeHandler(errorCounter);
+            manifest.close();
+            profile.close();
+            entityMappings.cleanRuntimeArtifact();
+        }
+        File profileFile = profile.write(project);
+        if (profileFile != null) {
+            LOG.log(Level.INFO, "Profile : {0}", profileFile.getAbsolutePath());
+        }
+        int errors = errorCounter.getCount();
+        if (errors != 0 || task.isFailed()) {
+            LOG.log(Level.SEVERE, "Failed : {0} [errors : {1}]", new Object[]{model, errors});
+            return false;
+        }
+        LOG.log(Level.INFO, "Generated : {0} [changed files : {1}, unchanged files : {2}, {3} ms]",
+                new Object[]{model, manifest.getChangedCount(), manifest.getUnchangedCount(), System.currentTimeMillis() - start});
+        return true;
+    }
+
+    /**
+     * Counts the logged errors, the log records are published by the handlers
+     * of root logger.
+     */
+    private static class ErrorCounter extends Handler {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void publish(LogRecord record) {
+            if (record.getLevel().intValue() >= Level.SEVERE.intValue()) {
+                count.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private int getCount() {
+            return count.get();
+        }
+    }
+
+}
@@ -26,6 +26,7 @@ import io.github.jeddict.jcode.jpa.PersistenceHelper;
 import io.github.jeddict.jcode.task.progress.ProgressHandler;
 import io.github.jeddict.jcode.util.BuildManager;
 import io.github.jeddict.jcode.util.FileUtil;
+import io.github.jeddict.jcode.util.GenerationProfile;
 import static io.github.jeddict.jcode.util.FileUtil.expandTemplateContent;
 import io.github.jeddict.jcode.util.WebDDUtil;
 import static io.github.jeddict.jcode.util.WebDDUtil.DD_NAME;
@@ -109,14 +110,18 @@ public class ApplicationGenerator extends AbstractGenerator {
             EntityMappings entityMappings = appConfigData.getEntityMappings();
             Set<String> entities = entityMappings.getFQEntity().collect(toSet());
             //Make necessary changes to the persistence.xml
-            if (appConfigData.isMonolith() || appConfigData.isMicroservice()) {
-                new PersistenceHelper(targetProject).configure(entities);
-            }
-            if (appConfigData.isGateway()) {
-                new PersistenceHelper(gatewayProject).configure(entities);
+            try (GenerationProfile.Span span = GenerationProfile.phase("persistence.configure")) {
+                if (appConfigData.isMonolith() || appConfigData.isMicroservice()) {
+                    new PersistenceHelper(targetProject).configure(entities);
+                }
+                if (appConfigData.isGateway()) {
+                    new PersistenceHelper(gatewayProject).configure(entities);
+                }
             }
 
-            generateCRUD();
+            try (GenerationProfile.Span span = GenerationProfile.phase("application.crud")) {
+                generateCRUD();
+            }
             appConfigData.getWebDescriptorContent().forEach((project, content) -> {
                 WebDDUtil.createDD(
                         project,
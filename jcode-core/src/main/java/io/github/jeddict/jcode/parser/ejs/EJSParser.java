@@ -20,15 +20,14 @@ import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
 import static io.github.jeddict.jcode.util.FileUtil.copy;
 import static io.github.jeddict.jcode.util.FileUtil.loadResource;
 import static io.github.jeddict.jcode.util.FileUtil.readString;
+import io.github.jeddict.jcode.util.GenerationProfile;
 import static io.github.jeddict.jcode.util.JavaUtil.convertToMap;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringWriter;
-import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -171,7 +170,9 @@ public final class EJSParser {
         String result = null;
         try {
             if (engine == null) {
-                engine = createEngine();
+                try (GenerationProfile.Span span = GenerationProfile.phase("ejs.engine")) {
+                    engine = createEngine();
+                }
             }
             Object ejs = engine.eval("ejs");
             Invocable invocable = (Invocable) engine;
@@ -256,12 +257,15 @@ public final class EJSParser {
                     fileType.getOutputStream().close();
                 } else {
                     Reader reader = new BufferedReader(new InputStreamReader(fileType.getInputStream(), UTF_8));
-                    try (Writer writer = new BufferedWriter(new OutputStreamWriter(fileType.getOutputStream(), UTF_8))) {
-                        writer.write(parse(reader));
+                    try (OutputStream stream = fileType.getOutputStream()) {
+                        byte[] content;
+                        try (GenerationProfile.Span span = GenerationProfile.template(fileType.getFileName())) {
+                            content = parse(reader).getBytes(UTF_8);
+                        }
+                        stream.write(content);
                         if (!(fileType.getInputStream() instanceof ZipInputStream)) {
                             reader.close();
                         }
-                        writer.flush();
                     }
                 }
 
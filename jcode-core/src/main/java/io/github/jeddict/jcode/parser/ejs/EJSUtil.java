@@ -21,6 +21,7 @@ import static io.github.jeddict.jcode.console.Console.FG_DARK_RED;
 import io.github.jeddict.jcode.task.progress.ProgressHandler;
 import static io.github.jeddict.jcode.util.FileUtil.copy;
 import static io.github.jeddict.jcode.util.FileUtil.loadResource;
+import io.github.jeddict.jcode.util.GenerationOutput;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -42,7 +43,6 @@ import java.util.function.Function;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import io.github.jeddict.util.StringUtils;
-import org.openide.filesystems.FileLock;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 import org.openide.util.Exceptions;
@@ -72,13 +72,9 @@ public class EJSUtil {
                     continue;
                 }
                 handler.progress(targetPath);
-                FileObject target = org.openide.filesystems.FileUtil.createData(webRoot, targetPath);
-                FileLock lock = target.lock();
-                try (OutputStream outputStream = target.getOutputStream(lock)) {
+                try (OutputStream outputStream = GenerationOutput.getCurrent().openOutputStream(new File(FileUtil.toFile(webRoot), targetPath))) {
                     parserManager.accept(new FileTypeStream(entryName, zipInputStream, outputStream, skipParsing));
                     zipInputStream.closeEntry();
-                } finally {
-                    lock.releaseLock();
                 }
             }
         } catch (Throwable ex) {
@@ -151,14 +147,9 @@ public class EJSUtil {
     public static void copyDynamicFile(Consumer<FileTypeStream> parserManager, String inputResource, FileObject webRoot, String targetFile, ProgressHandler handler) throws IOException {
         try {
             handler.progress(targetFile);
-            FileObject target = org.openide.filesystems.FileUtil.createData(webRoot, targetFile);
-            FileLock lock = target.lock();
-            try {
-                InputStream inputStream = loadResource(inputResource);
-                OutputStream outputStream = target.getOutputStream(lock);
+            InputStream inputStream = loadResource(inputResource);
+            try (OutputStream outputStream = GenerationOutput.getCurrent().openOutputStream(new File(FileUtil.toFile(webRoot), targetFile))) {
                 parserManager.accept(new FileTypeStream(inputResource, inputStream, outputStream));
-            } finally {
-                lock.releaseLock();
             }
         } catch (IOException ex) {
             Exceptions.printStackTrace(ex);
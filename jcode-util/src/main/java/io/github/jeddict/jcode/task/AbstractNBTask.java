@@ -40,9 +40,9 @@ public abstract class AbstractNBTask extends Thread
     private AggregateProgressHandle progressHandle;
     protected ProgressContributor[] progressContribs;
 
-    protected boolean cancelled = false;
+    protected volatile boolean cancelled = false;
     protected long start;
-    protected boolean success = true;
+    protected volatile boolean success = true;
     private InputOutput inputOutput;
     private PrintWriter out;
     private HashMap<String, Object> taskSettings = new HashMap<>();
@@ -98,6 +98,11 @@ public abstract class AbstractNBTask extends Thread
         return true;
     }
 
+    @Override
+    public boolean isCancelled() {
+        return cancelled || !success;
+    }
+
     // methods that should be implemented or overriden by subclass
     /////////////////////////////////////////////////////////////////////
     protected abstract void initTask();
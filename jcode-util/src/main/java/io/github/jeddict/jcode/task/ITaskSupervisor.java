@@ -110,4 +110,14 @@ public interface ITaskSupervisor {
      */
     public void fail();
 
+    /**
+     * Unlike proceed(), this method has no side effect and may be invoked
+     * from any thread.
+     *
+     * @return true if the task is cancelled or failed
+     */
+    public default boolean isCancelled() {
+        return false;
+    }
+
 }
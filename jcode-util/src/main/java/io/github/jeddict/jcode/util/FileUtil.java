@@ -31,8 +31,11 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
@@ -40,20 +43,14 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import javax.script.Bindings;
-import javax.script.ScriptContext;
-import javax.script.ScriptEngine;
-import javax.script.ScriptException;
 import static io.github.jeddict.util.StringUtils.isBlank;
 import static io.github.jeddict.util.StringUtils.EMPTY;
 import org.netbeans.api.queries.FileEncodingQuery;
 import org.openide.filesystems.FileLock;
 import org.openide.filesystems.FileObject;
-import org.openide.loaders.DataObject;
 import org.openide.util.Exceptions;
 import org.openide.util.Lookup;
 import org.openide.util.LookupEvent; 
-import org.netbeans.api.scripting.Scripting;
 
 /**
  *
@@ -65,7 +62,7 @@ public class FileUtil {
 
     private static final int DEFAULT_BUFFER_SIZE = 8192;
 
-    private static final String ENCODING_PROPERTY_NAME = "encoding"; //NOI18N
+    private static final ThreadLocal<ByteBuffer> COMPARE_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(DEFAULT_BUFFER_SIZE));
 
     public static URL getResourceURL(String resource) {
         if (resource.startsWith("/")) {
@@ -207,66 +204,128 @@ public class FileUtil {
     }
 
     public static FileObject expandTemplate(String inputTemplatePath, FileObject toDir, String toFile, Map<String, Object> params) throws IOException {
-        InputStream contentStream = loadResource(inputTemplatePath);
+        if (GenerationOutput.getCurrent().isVirtual()) {
+            expandTemplate(
+                    new File(org.openide.filesystems.FileUtil.toFile(toDir), toFile),
+                    FileEncodingQuery.getEncoding(toDir),
+                    (writer, targetEncoding) -> TemplateRenderer.render(inputTemplatePath, params, writer, targetEncoding)
+            );
+            return toDir.getFileObject(toFile);
+        }
         FileObject outputFile = toDir.getFileObject(toFile);
         if (outputFile == null) {
             outputFile = org.openide.filesystems.FileUtil.createData(toDir, toFile);
         }
-        expandTemplate(contentStream, outputFile, params);
+        expandTemplate(inputTemplatePath, outputFile, params);
         return outputFile;
     }
     
     public static void expandTemplate(String inputTemplatePath, FileObject toFile, Map<String, Object> params) throws IOException {
-        InputStream contentStream = loadResource(inputTemplatePath);
-        expandTemplate(contentStream, toFile, params);
+        expandTemplate(toFile, (writer, targetEncoding) -> TemplateRenderer.render(inputTemplatePath, params, writer, targetEncoding));
     }
 
     public static void expandTemplate(InputStream template, FileObject toFile, Map<String, Object> values) throws IOException {
+        expandTemplate(toFile, (writer, targetEncoding) -> expandTemplate(new InputStreamReader(template), writer, values, targetEncoding));
+    }
+
+    private static void expandTemplate(FileObject toFile, TemplateWriter templateWriter) throws IOException {
         Charset targetEncoding = FileEncodingQuery.getEncoding(toFile);
+        if (GenerationOutput.getCurrent().isVirtual()) {
+            expandTemplate(org.openide.filesystems.FileUtil.toFile(toFile), targetEncoding, templateWriter);
+            return;
+        }
         if (toFile.isLocked()) {
             LOG.log(Level.SEVERE, "File {0} is locked", new Object[]{toFile.getName()});
             return;
         }
-        FileLock lock = toFile.lock();
-        try (Writer writer = new OutputStreamWriter(toFile.getOutputStream(lock), targetEncoding)) {
-            expandTemplate(new InputStreamReader(template), writer, values, targetEncoding);
-        } finally {
-            lock.releaseLock();
+        String content;
+        try (TemplateBuffer writer = TemplateBuffer.acquire()) {
+            templateWriter.write(writer, targetEncoding);
+            content = writer.toString();
+        }
+        GenerationManifest manifest = GenerationContext.getCurrent().getManifest();
+        File file = org.openide.filesystems.FileUtil.toFile(toFile);
+        if (file != null && manifest != null && manifest.isUpToDate(file, content)) {
+            return;
         }
-        DataObject dob = DataObject.find(toFile);
-        if (dob != null) {
-            reformat(dob);
+        // formatted in memory, so the content is compared with the formatted file on disk
+        String formattedContent;
+        try (GenerationProfile.Span span = GenerationProfile.phase("format")) {
+            formattedContent = reformat(content, toFile);
+        }
+        byte[] bytes = formattedContent.getBytes(targetEncoding);
+        if (file == null) {
+            // not on disk, written through the file system of file object
+            FileLock lock = toFile.lock();
+            try (OutputStream stream = toFile.getOutputStream(lock)) {
+                stream.write(bytes);
+            } finally {
+                lock.releaseLock();
+            }
+            GenerationProfile.written(bytes.length);
+            return;
+        }
+        boolean changed = GenerationOutput.getCurrent().write(file, bytes);
+        if (changed) {
+            toFile.refresh();
+        }
+        if (manifest != null) {
+            manifest.record(file, content, changed);
         }
     }
 
-    public static void expandTemplate(Reader reader, Writer writer, Map<String, Object> values) throws IOException {
-        expandTemplate(reader, writer, values, Charset.defaultCharset());
+    /**
+     * Expands the template to the virtual output, without reformatting.
+     */
+    private static void expandTemplate(File toFile, Charset targetEncoding, TemplateWriter templateWriter) throws IOException {
+        try (TemplateBuffer writer = TemplateBuffer.acquire()) {
+            templateWriter.write(writer, targetEncoding);
+            GenerationOutput.getCurrent().write(toFile, writer.toString().getBytes(targetEncoding));
+        }
     }
 
-    public static void expandTemplate(Reader reader, Writer writer, Map<String, Object> values, Charset targetEncoding) throws IOException {
-        ScriptEngine eng = getScriptEngine();
-        Bindings bind = eng.getContext().getBindings(ScriptContext.ENGINE_SCOPE);
-        if (values != null) {
-            bind.putAll(values);
+    /**
+     * Compares the length and then the bytes of file with the content, the
+     * file is read in chunks through the buffer pooled per thread.
+     *
+     * @return true if file exist with the identical content
+     */
+    public static boolean isSameContent(File file, byte[] content) throws IOException {
+        if (!file.isFile() || file.length() != content.length) {
+            return false;
         }
-        bind.put(ENCODING_PROPERTY_NAME, targetEncoding.name());
-
-        try {
-            eng.getContext().setWriter(writer);
-            eng.eval(reader);
-        } catch (ScriptException ex) {
-            throw new IOException(ex);
-        } finally {
-            if (reader != null) {
-                reader.close();
+        ByteBuffer buffer = COMPARE_BUFFER.get();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int position = 0;
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    return position == content.length;
+                }
+                if (position + read > content.length) {
+                    return false;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    if (buffer.get() != content[position++]) {
+                        return false;
+                    }
+                }
             }
         }
     }
+
+    public static void expandTemplate(Reader reader, Writer writer, Map<String, Object> values) throws IOException {
+        expandTemplate(reader, writer, values, Charset.defaultCharset());
+    }
+
+    public static void expandTemplate(Reader reader, Writer writer, Map<String, Object> values, Charset targetEncoding) throws IOException {
+        TemplateRenderer.render(reader, values, writer, targetEncoding);
+    }
     
     public static void expandTemplate(String inputTemplatePath, Writer writer, Map<String, Object> values) throws IOException {
-        InputStream contentStream = loadResource(inputTemplatePath);
-        Reader reader = new InputStreamReader(contentStream);
-        expandTemplate(reader, writer, values, Charset.defaultCharset());
+        TemplateRenderer.render(inputTemplatePath, values, writer);
     }
 
     public static String expandTemplate(String inputTemplatePath, Map<String, Object> values) {
@@ -288,25 +347,18 @@ public class FileUtil {
      */
     public static String expandTemplateContent(String templateContent, Map<String, Object> values) {
         StringWriter writer = new StringWriter();
-        ScriptEngine eng = getScriptEngine();
-        Bindings bind = eng.getContext().getBindings(ScriptContext.ENGINE_SCOPE);
-        if (values != null) {
-            bind.putAll(values);
-        }
-        bind.put(ENCODING_PROPERTY_NAME, Charset.defaultCharset().name());
-        eng.getContext().setWriter(writer);
-        Reader is = new StringReader(templateContent);
         try {
-            eng.eval(is);
-        } catch (ScriptException ex) {
+            TemplateRenderer.render(new StringReader(templateContent), values, writer, Charset.defaultCharset());
+        } catch (IOException ex) {
             Exceptions.printStackTrace(ex);
         }
-
         return writer.toString();
     }
 
-    private static ScriptEngine getScriptEngine() {
-        return Scripting.createManager().getEngineByName("freemarker");
+    @FunctionalInterface
+    private interface TemplateWriter {
+
+        void write(Writer writer, Charset targetEncoding) throws IOException;
     }
 
     public static FileObject createFolder(FileObject folder, String name) throws IOException {
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * State of a generation run, bound to the thread running the generation.
+ *
+ * The context is not shared with the other runs, the worker threads of a run
+ * are bound to the context of run by wrapping their tasks with
+ * {@link #wrap(Callable)} or {@link #wrap(Function)}. Threads not bound to
+ * any run write to disk and read the parallelism from
+ * <code>-J-Djeddict.generator.parallelism=&lt;n&gt;</code>.
+ *
+ * <pre>
+ * try (GenerationContext.Scope scope = GenerationContext.getCurrent().withOutput(output).bind()) {
+ *     // generate
+ * }
+ * </pre>
+ *
+ * @author Gaurav Gupta
+ */
+public final class GenerationContext {
+
+    public static final String PARALLELISM_PROPERTY = "jeddict.generator.parallelism";
+
+    private static final GenerationContext DEFAULT = new GenerationContext(GenerationOutput.DISK, null, null);
+
+    private static final ThreadLocal<GenerationContext> CURRENT = new ThreadLocal<>();
+
+    private final GenerationOutput output;
+
+    private final Integer parallelism;
+
+    private final GenerationManifest manifest;
+
+    private GenerationContext(GenerationOutput output, Integer parallelism, GenerationManifest manifest) {
+        this.output = output;
+        this.parallelism = parallelism;
+        this.manifest = manifest;
+    }
+
+    /**
+     * @return the context of the run bound to the current thread
+     */
+    public static GenerationContext getCurrent() {
+        GenerationContext context = CURRENT.get();
+        return context == null ? DEFAULT : context;
+    }
+
+    /**
+     * @return the output of generated files
+     */
+    public GenerationOutput getOutput() {
+        return output;
+    }
+
+    /**
+     * @return the copy of context with the output, the context is not bound
+     */
+    public GenerationContext withOutput(GenerationOutput output) {
+        return new GenerationContext(output == null ? GenerationOutput.DISK : output, parallelism, manifest);
+    }
+
+    /**
+     * @return the number of items generated concurrently, one for sequential
+     * generation and zero or less for the number of available processors
+     */
+    public int getParallelism() {
+        return parallelism == null ? Integer.getInteger(PARALLELISM_PROPERTY, 1) : parallelism;
+    }
+
+    /**
+     * @return the copy of context with the parallelism, the context is not
+     * bound
+     */
+    public GenerationContext withParallelism(int parallelism) {
+        return new GenerationContext(output, parallelism, manifest);
+    }
+
+    /**
+     * @return the manifest of generated files or null
+     */
+    public GenerationManifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * @return the copy of context with the manifest, the context is not bound
+     */
+    public GenerationContext withManifest(GenerationManifest manifest) {
+        return new GenerationContext(output, parallelism, manifest);
+    }
+
+    /**
+     * Binds the context to the current thread until the scope is closed.
+     *
+     * @return the scope to be closed on the same thread
+     */
+    public Scope bind() {
+        GenerationContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    /**
+     * @return the task run with the context bound to the worker thread
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            try (Scope scope = bind()) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * @return the function applied with the context bound to the worker thread
+     */
+    public <T, R> Function<T, R> wrap(Function<T, R> function) {
+        return value -> {
+            try (Scope scope = bind()) {
+                return function.apply(value);
+            }
+        };
+    }
+
+    /**
+     * Binding of a context to a thread, restores the previous binding of the
+     * thread on close.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final GenerationContext previous;
+
+        private Scope(GenerationContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+}
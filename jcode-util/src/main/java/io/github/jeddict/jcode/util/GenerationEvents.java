@@ -0,0 +1,165 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import static java.util.Collections.singletonList;
+
+/**
+ * Flight recorder events of the generation, recorded if the runtime supports
+ * JFR and the events are enabled in the recording:
+ * <code>io.github.jeddict.GenerationPhase</code>,
+ * <code>io.github.jeddict.TemplateExpansion</code> and
+ * <code>io.github.jeddict.ClassGeneration</code>.
+ *
+ * The event types are created at runtime with <code>jdk.jfr.EventFactory</code>
+ * through reflection, so the module is compiled and run without
+ * <code>jdk.jfr</code> (JDK 8 before 8u262).
+ *
+ * @author Gaurav Gupta
+ */
+final class GenerationEvents {
+
+    private static final EventKind PHASE = EventKind.create("io.github.jeddict.GenerationPhase",
+            "Generation Phase", "Phase of source code generation");
+    private static final EventKind TEMPLATE = EventKind.create("io.github.jeddict.TemplateExpansion",
+            "Template Expansion", "Expansion of FreeMarker or EJS template");
+    private static final EventKind CLASS = EventKind.create("io.github.jeddict.ClassGeneration",
+            "Class Generation", "Generation of java class from the model");
+
+    private GenerationEvents() {
+    }
+
+    /**
+     * @return the begun event or null if event is not enabled
+     */
+    static Object beginPhase(String phase) {
+        return PHASE != null ? PHASE.begin(phase) : null;
+    }
+
+    static Object beginTemplate(String template) {
+        return TEMPLATE != null ? TEMPLATE.begin(template) : null;
+    }
+
+    static Object beginClass(String className) {
+        return CLASS != null ? CLASS.begin(className) : null;
+    }
+
+    static void commit(Object event) {
+        if (event != null) {
+            try {
+                Jfr.commitMethod.invoke(event);
+            } catch (ReflectiveOperationException ex) {
+                // event is dropped
+            }
+        }
+    }
+
+    /**
+     * Event type with the name field, created by the event factory.
+     */
+    private static final class EventKind {
+
+        private final Object factory;
+        private final Object eventType;
+
+        private EventKind(Object factory) throws ReflectiveOperationException {
+            this.factory = factory;
+            this.eventType = Jfr.getEventTypeMethod.invoke(factory);
+        }
+
+        /**
+         * @return the event type or null if JFR is not available
+         */
+        private static EventKind create(String name, String label, String description) {
+            if (!Jfr.AVAILABLE) {
+                return null;
+            }
+            try {
+                List<Object> annotations = Arrays.asList(
+                        Jfr.annotation(Jfr.nameType, name),
+                        Jfr.annotation(Jfr.labelType, label),
+                        Jfr.annotation(Jfr.descriptionType, description),
+                        Jfr.annotation(Jfr.categoryType, new String[]{"Jeddict", "Generation"})
+                );
+                List<Object> fields = singletonList(Jfr.valueDescriptor.newInstance(
+                        String.class, "name", singletonList(Jfr.annotation(Jfr.labelType, "Name"))));
+                return new EventKind(Jfr.createMethod.invoke(null, annotations, fields));
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+                return null;
+            }
+        }
+
+        private Object begin(String name) {
+            try {
+                if (!(Boolean) Jfr.isEnabledMethod.invoke(eventType)) {
+                    return null;
+                }
+                Object event = Jfr.newEventMethod.invoke(factory);
+                Jfr.setMethod.invoke(event, 0, name);
+                Jfr.beginMethod.invoke(event);
+                return event;
+            } catch (ReflectiveOperationException ex) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reflective access to the <code>jdk.jfr</code> API.
+     */
+    private static final class Jfr {
+
+        private static final boolean AVAILABLE;
+        private static Class<? extends Annotation> nameType, labelType, descriptionType, categoryType;
+        private static Constructor<?> annotationElement, valueDescriptor;
+        private static Method createMethod, newEventMethod, getEventTypeMethod, isEnabledMethod, setMethod, beginMethod, commitMethod;
+
+        static {
+            boolean available;
+            try {
+                nameType = Class.forName("jdk.jfr.Name").asSubclass(Annotation.class);
+                labelType = Class.forName("jdk.jfr.Label").asSubclass(Annotation.class);
+                descriptionType = Class.forName("jdk.jfr.Description").asSubclass(Annotation.class);
+                categoryType = Class.forName("jdk.jfr.Category").asSubclass(Annotation.class);
+                annotationElement = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+                valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+                Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+                createMethod = eventFactory.getMethod("create", List.class, List.class);
+                newEventMethod = eventFactory.getMethod("newEvent");
+                getEventTypeMethod = eventFactory.getMethod("getEventType");
+                isEnabledMethod = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+                Class<?> event = Class.forName("jdk.jfr.Event");
+                setMethod = event.getMethod("set", int.class, Object.class);
+                beginMethod = event.getMethod("begin");
+                commitMethod = event.getMethod("commit");
+                available = true;
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException ex) {
+                available = false;
+            }
+            AVAILABLE = available;
+        }
+
+        private static Object annotation(Class<? extends Annotation> type, Object value) throws ReflectiveOperationException {
+            return annotationElement.newInstance(type, value);
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ProjectUtils;
+
+/**
+ * Manifest of the generated files, stored in the project cache directory to
+ * skip the format and write of unchanged files in the next generation.
+ *
+ * Each entry is the hash of the unformatted generated content along with the
+ * length and last-modified time of the written file. The content is still
+ * generated (snippets, templates and merge with the existing source), only the
+ * format and write are skipped if its hash is same and the file is not
+ * modified or deleted since the last generation. Keying on the content, rather
+ * than on the model element, keeps the cross-class inputs (superclass,
+ * relation targets and generator settings) covered without tracking them.
+ *
+ * Files whose content is identical to the file on disk are not rewritten
+ * either, the number of changed and unchanged files is reported at the end of
+ * generation. Entries of the files not generated in a run are dropped when the
+ * manifest is stored.
+ *
+ * Full generation is forced with
+ * <code>-J-Djeddict.generator.full=true</code>.
+ *
+ * @author Gaurav Gupta
+ */
+public final class GenerationManifest {
+
+    private static final Logger LOGGER = Logger.getLogger(GenerationManifest.class.getName());
+    private static final boolean FULL = Boolean.getBoolean("jeddict.generator.full");
+    private static final String FILE_NAME = "generation.manifest";
+    private static final String VERSION_KEY = "#version";
+    private static final String VERSION = "1";
+
+    private final File manifestFile;
+    private final Properties entries = new Properties();
+    private final Set<String> generatedFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger changedCount = new AtomicInteger();
+    private final AtomicInteger unchangedCount = new AtomicInteger();
+
+    private GenerationManifest(File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Opens the manifest of project, the manifest is used by the generation
+     * bound to {@link GenerationContext#withManifest(GenerationManifest) context}.
+     *
+     * @param project the generation target
+     * @param full if true then previous entries are ignored and all files are
+     * generated
+     * @return the manifest, not persisted if project cache directory is not
+     * available
+     */
+    public static GenerationManifest open(Project project, boolean full) {
+        File manifestFile = null;
+        try {
+            File cacheDir = org.openide.filesystems.FileUtil.toFile(
+                    ProjectUtils.getCacheDirectory(project, GenerationManifest.class));
+            if (cacheDir != null) {
+                manifestFile = new File(cacheDir, FILE_NAME);
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Generation manifest cache directory not available", ex);
+        }
+        GenerationManifest manifest = new GenerationManifest(manifestFile);
+        if (!full && !FULL) {
+            manifest.load();
+        }
+        return manifest;
+    }
+
+    private void load() {
+        if (manifestFile == null || !manifestFile.exists()) {
+            return;
+        }
+        try (InputStream stream = Files.newInputStream(manifestFile.toPath())) {
+            entries.load(stream);
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Unable to load generation manifest " + manifestFile, ex);
+        }
+        if (!VERSION.equals(entries.getProperty(VERSION_KEY))) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @param file the target file
+     * @param content the unformatted generated content
+     * @return true if file is generated from the same content and not modified
+     * since then, so the format and write can be skipped
+     */
+    public boolean isUpToDate(File file, String content) {
+        generatedFiles.add(file.getAbsolutePath());
+        String entry = entries.getProperty(file.getAbsolutePath());
+        if (entry == null || !file.isFile()
+                || !entry.equals(createEntry(file, content))) {
+            return false;
+        }
+        unchangedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Records the generated file against the unformatted generated content.
+     *
+     * @param changed false if the file is not rewritten as content on disk is
+     * identical
+     */
+    public void record(File file, String content, boolean changed) {
+        generatedFiles.add(file.getAbsolutePath());
+        entries.setProperty(file.getAbsolutePath(), createEntry(file, content));
+        (changed ? changedCount : unchangedCount).incrementAndGet();
+    }
+
+    /**
+     * @return the number of files written in current generation
+     */
+    public int getChangedCount() {
+        return changedCount.get();
+    }
+
+    /**
+     * @return the number of files skipped or not rewritten in current
+     * generation
+     */
+    public int getUnchangedCount() {
+        return unchangedCount.get();
+    }
+
+    /**
+     * Stores the manifest, without the entries of files not generated in
+     * current generation.
+     */
+    public void close() {
+        if (manifestFile == null) {
+            return;
+        }
+        entries.keySet().retainAll(generatedFiles);
+        entries.setProperty(VERSION_KEY, VERSION);
+        File tempFile = new File(manifestFile.getPath() + ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(tempFile.toPath())) {
+                entries.store(stream, null);
+            }
+            Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Unable to store generation manifest " + manifestFile, ex);
+            tempFile.delete();
+        }
+    }
+
+    private static String createEntry(File file, String content) {
+        return hash(content) + ':' + file.length() + ':' + file.lastModified();
+    }
+
+    private static String hash(String content) {
+        try {
+            StringBuilder hash = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(content.getBytes(UTF_8))) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
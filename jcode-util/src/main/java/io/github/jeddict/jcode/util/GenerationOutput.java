@@ -0,0 +1,159 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Target of the generated files, the files are written to disk unless a
+ * {@link VirtualOutput} is opened for the generation. The output is part of
+ * the {@link GenerationContext} of the run.
+ *
+ * @author Gaurav Gupta
+ */
+public abstract class GenerationOutput {
+
+    static final GenerationOutput DISK = new DiskOutput();
+
+    /**
+     * @return the output of the run bound to the current thread
+     */
+    public static GenerationOutput getCurrent() {
+        return GenerationContext.getCurrent().getOutput();
+    }
+
+    /**
+     * @return true if files are not written to disk
+     */
+    public abstract boolean isVirtual();
+
+    /**
+     * Writes the content if it is different from the existing content, disk
+     * output writes to a temporary file and then renames it to the target
+     * file, so the target file is never partially written.
+     *
+     * @param file the target file
+     * @param content the file content
+     * @return true if content is changed
+     * @throws IOException
+     */
+    public abstract boolean write(File file, byte[] content) throws IOException;
+
+    /**
+     * @param file the target file
+     * @return the stream to write the file content, content is stored on close
+     * of stream, disk output renames the temporary file to the target file on
+     * close. Written files are recorded in the generation profile by the
+     * output, so the callers do not record them.
+     * @throws IOException
+     */
+    public abstract OutputStream openOutputStream(File file) throws IOException;
+
+    private static class DiskOutput extends GenerationOutput {
+
+        @Override
+        public boolean isVirtual() {
+            return false;
+        }
+
+        @Override
+        public boolean write(File file, byte[] content) throws IOException {
+            if (FileUtil.isSameContent(file, content)) {
+                return false;
+            }
+            Path temp = getTempFile(file);
+            try {
+                try (FileChannel channel = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(content);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                replace(temp, file.toPath());
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            GenerationProfile.written(content.length);
+            return true;
+        }
+
+        @Override
+        public OutputStream openOutputStream(File file) throws IOException {
+            Path temp = getTempFile(file);
+            return new FilterOutputStream(Files.newOutputStream(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                private long size;
+                private boolean closed;
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    size++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    size += len;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        try {
+                            super.close();
+                            replace(temp, file.toPath());
+                        } finally {
+                            Files.deleteIfExists(temp);
+                        }
+                        GenerationProfile.written(size);
+                    }
+                }
+            };
+        }
+
+        /**
+         * @return the temporary file in the directory of target file, unique
+         * per writing thread
+         */
+        private static Path getTempFile(File file) {
+            file.getParentFile().mkdirs();
+            return file.toPath().resolveSibling('.' + file.getName() + '.' + Thread.currentThread().getId() + ".tmp");
+        }
+
+        private static void replace(Path temp, Path target) throws IOException {
+            try {
+                Files.move(temp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, REPLACE_EXISTING);
+            }
+        }
+    }
+
+}
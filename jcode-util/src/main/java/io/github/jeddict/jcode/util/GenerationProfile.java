@@ -0,0 +1,309 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import java.io.File;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import static java.util.stream.Collectors.toList;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ProjectUtils;
+
+/**
+ * Timing profile of a generation run, aggregated per phase, per template and
+ * per generated class along with the generated bytes.
+ *
+ * Each measured section is also recorded as flight recorder event (see
+ * {@link GenerationEvents}), whether or not a profile is started. Phases may
+ * nest e.g template expansion within snippet phase, so the phase times do not
+ * add up to the total time.
+ *
+ * The summary is logged at the end of generation and the profile is stored
+ * as JSON (durations in milliseconds) in the project cache directory or in
+ * the file of <code>-J-Djeddict.generator.profile.file=&lt;path&gt;</code>.
+ *
+ * <pre>
+ * try (GenerationProfile.Span span = GenerationProfile.phase("format")) {
+ *     // format
+ * }
+ * </pre>
+ *
+ * @author Gaurav Gupta
+ */
+public final class GenerationProfile {
+
+    private static final Logger LOGGER = Logger.getLogger(GenerationProfile.class.getName());
+    private static final String FILE_NAME = "generation-profile.json";
+    private static final String PROFILE_FILE = System.getProperty("jeddict.generator.profile.file");
+    private static final int SLOWEST = Integer.getInteger("jeddict.generator.profile.slowest", 10);
+
+    private static final Span NOOP = () -> {
+    };
+
+    private static volatile GenerationProfile current;
+
+    private final Instant startTime = Instant.now();
+    private final long start = System.nanoTime();
+    private volatile long duration = -1;
+    private final Map<String, Stat> phases = new ConcurrentHashMap<>();
+    private final Map<String, Stat> templates = new ConcurrentHashMap<>();
+    private final Map<String, Stat> classes = new ConcurrentHashMap<>();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder filesWritten = new LongAdder();
+
+    private GenerationProfile() {
+    }
+
+    /**
+     * Starts the profile as the current profile of generation.
+     */
+    public static GenerationProfile start() {
+        GenerationProfile profile = new GenerationProfile();
+        current = profile;
+        return profile;
+    }
+
+    /**
+     * @return the profile of current generation or null
+     */
+    public static GenerationProfile getCurrent() {
+        return current;
+    }
+
+    /**
+     * Measured section, closed at the end of section.
+     */
+    @FunctionalInterface
+    public interface Span extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    public static Span phase(String phase) {
+        return begin(Section.PHASE, phase, GenerationEvents.beginPhase(phase));
+    }
+
+    public static Span template(String template) {
+        return begin(Section.TEMPLATE, template, GenerationEvents.beginTemplate(template));
+    }
+
+    public static Span javaClass(String className) {
+        return begin(Section.CLASS, className, GenerationEvents.beginClass(className));
+    }
+
+    private static Span begin(Section section, String name, Object event) {
+        GenerationProfile profile = current;
+        if (profile == null && event == null) {
+            return NOOP;
+        }
+        long sectionStart = System.nanoTime();
+        return () -> {
+            GenerationEvents.commit(event);
+            if (profile != null) {
+                profile.getStats(section)
+                        .computeIfAbsent(name == null ? "<inline>" : name, key -> new Stat())
+                        .add(System.nanoTime() - sectionStart);
+            }
+        };
+    }
+
+    /**
+     * Records the generated file written to the output.
+     */
+    public static void written(long bytes) {
+        GenerationProfile profile = current;
+        if (profile != null) {
+            profile.bytesWritten.add(bytes);
+            profile.filesWritten.increment();
+        }
+    }
+
+    private Map<String, Stat> getStats(Section section) {
+        switch (section) {
+            case TEMPLATE:
+                return templates;
+            case CLASS:
+                return classes;
+            default:
+                return phases;
+        }
+    }
+
+    /**
+     * Stops the profile and ends the current generation.
+     */
+    public void close() {
+        if (current == this) {
+            current = null;
+        }
+        if (duration < 0) {
+            duration = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * @return the summary lines, phases and templates sorted by time and the
+     * slowest classes
+     */
+    public List<String> getSummary() {
+        List<String> summary = new ArrayList<>();
+        summary.add(String.format(Locale.ENGLISH, "Generation time : %,d ms, files written : %,d, bytes written : %,d",
+                toMillis(getDuration()), filesWritten.sum(), bytesWritten.sum()));
+        addSummary(summary, "Phases :", sort(phases), Integer.MAX_VALUE);
+        addSummary(summary, "Templates :", sort(templates), SLOWEST);
+        addSummary(summary, "Slowest classes :", sort(classes), SLOWEST);
+        return summary;
+    }
+
+    private static void addSummary(List<String> summary, String title, List<Map.Entry<String, Stat>> stats, int limit) {
+        if (stats.isEmpty()) {
+            return;
+        }
+        summary.add(title);
+        stats.stream()
+                .limit(limit)
+                .forEach(stat -> summary.add(String.format(Locale.ENGLISH, "  %-60s %,8d ms %6d",
+                        stat.getKey(), toMillis(stat.getValue().nanos.sum()), stat.getValue().count.sum())));
+    }
+
+    /**
+     * Writes the profile as JSON.
+     *
+     * @param project the generation target, to resolve the cache directory
+     * @return the written file or null
+     */
+    public File write(Project project) {
+        File file = null;
+        try {
+            if (PROFILE_FILE != null) {
+                file = new File(PROFILE_FILE);
+            } else if (project != null) {
+                File cacheDir = org.openide.filesystems.FileUtil.toFile(
+                        ProjectUtils.getCacheDirectory(project, GenerationProfile.class));
+                if (cacheDir != null) {
+                    file = new File(cacheDir, FILE_NAME);
+                }
+            }
+            if (file == null) {
+                return null;
+            }
+            File parent = file.getAbsoluteFile().getParentFile();
+            parent.mkdirs();
+            File tempFile = new File(parent, file.getName() + ".tmp");
+            Files.write(tempFile.toPath(), toJson().getBytes(UTF_8));
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Unable to store generation profile " + file, ex);
+            return null;
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"start\": ").append(quote(startTime.toString())).append(",\n");
+        json.append("  \"duration\": ").append(toMillisString(getDuration())).append(",\n");
+        json.append("  \"filesWritten\": ").append(filesWritten.sum()).append(",\n");
+        json.append("  \"bytesWritten\": ").append(bytesWritten.sum()).append(",\n");
+        appendJson(json, "phases", sort(phases), Integer.MAX_VALUE);
+        json.append(",\n");
+        appendJson(json, "templates", sort(templates), Integer.MAX_VALUE);
+        json.append(",\n");
+        appendJson(json, "slowestClasses", sort(classes), SLOWEST);
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    private static void appendJson(StringBuilder json, String key, List<Map.Entry<String, Stat>> stats, int limit) {
+        json.append("  ").append(quote(key)).append(": [");
+        String separator = "\n";
+        for (Map.Entry<String, Stat> stat : stats.subList(0, Math.min(limit, stats.size()))) {
+            json.append(separator)
+                    .append("    {\"name\": ").append(quote(stat.getKey()))
+                    .append(", \"count\": ").append(stat.getValue().count.sum())
+                    .append(", \"duration\": ").append(toMillisString(stat.getValue().nanos.sum()))
+                    .append('}');
+            separator = ",\n";
+        }
+        json.append(stats.isEmpty() ? "]" : "\n  ]");
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private long getDuration() {
+        return duration < 0 ? System.nanoTime() - start : duration;
+    }
+
+    private static List<Map.Entry<String, Stat>> sort(Map<String, Stat> stats) {
+        return stats.entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Stat> stat) -> stat.getValue().nanos.sum())
+                        .reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .collect(toList());
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static String toMillisString(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f", nanos / 1_000_000d);
+    }
+
+    private enum Section {
+        PHASE, TEMPLATE, CLASS
+    }
+
+    private static final class Stat {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private void add(long duration) {
+            count.increment();
+            nanos.add(duration);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import static java.util.stream.Collectors.toList;
+import org.netbeans.api.java.source.CodeStyle;
+import org.netbeans.modules.java.source.save.Reformatter;
+import org.openide.filesystems.FileObject;
+
+/**
+ * Headless java source formatter, formats the plain string without document,
+ * editor or data object.
+ *
+ * Code style is resolved once per source root (project formatting
+ * preferences) and shared by the concurrent formatting requests.
+ *
+ * @author Gaurav Gupta
+ */
+public final class JavaSourceFormatter {
+
+    private static final Logger LOG = Logger.getLogger(JavaSourceFormatter.class.getName());
+
+    private static final Map<FileObject, CodeStyle> CODE_STYLES = new WeakHashMap<>();
+
+    private JavaSourceFormatter() {
+    }
+
+    /**
+     * @param source the java source
+     * @param sourceRoot the source root to resolve the formatting preferences,
+     * if null then global preferences are used
+     * @return the formatted source without leading and trailing whitespace or
+     * the source itself if it can not be formatted
+     */
+    public static String format(String source, FileObject sourceRoot) {
+        return format(source, getCodeStyle(sourceRoot));
+    }
+
+    /**
+     * Formats the batch of sources concurrently, code style is resolved once
+     * for the batch.
+     *
+     * @return the formatted sources in order of the given sources
+     */
+    public static List<String> format(List<String> sources, FileObject sourceRoot) {
+        if (sources.isEmpty()) {
+            return sources;
+        }
+        CodeStyle codeStyle = getCodeStyle(sourceRoot);
+        return sources.parallelStream()
+                .map(source -> format(source, codeStyle))
+                .collect(toList());
+    }
+
+    private static String format(String source, CodeStyle codeStyle) {
+        try {
+            return Reformatter.reformat(source, codeStyle).trim();
+        } catch (RuntimeException ex) {
+            LOG.log(Level.WARNING, "Unable to format the source", ex);
+            return source;
+        }
+    }
+
+    private static CodeStyle getCodeStyle(FileObject sourceRoot) {
+        if (sourceRoot == null) {
+            return CodeStyle.getDefault((FileObject) null);
+        }
+        synchronized (CODE_STYLES) {
+            return CODE_STYLES.computeIfAbsent(sourceRoot, CodeStyle::getDefault);
+        }
+    }
+
+}
@@ -39,6 +39,8 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.EditorKit;
 import javax.swing.text.StyledDocument;
 import io.github.jeddict.util.StringUtils;
 import static io.github.jeddict.util.StringUtils.EMPTY;
@@ -58,6 +60,7 @@ import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 import org.openide.loaders.DataObject;
 import org.openide.loaders.DataObjectNotFoundException;
+import org.openide.text.CloneableEditorSupport;
 import org.openide.text.NbDocument;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
@@ -80,6 +83,7 @@ public class JavaSourceHelper {
 
     static final String CLASS_TEMPLATE = "Templates/Classes/Class.java"; // NOI18N
     static final String INTERFACE_TEMPLATE = "Templates/Classes/Interface.java"; // NOI18N
+    private static final String JAVA_MIME_TYPE = "text/x-java"; // NOI18N
 
     public static List<JavaSource> getJavaSources(Project project) {
         List<JavaSource> result = new ArrayList<>();
@@ -222,6 +226,46 @@ public class JavaSourceHelper {
         }
     }
 
+    /**
+     * Formats the content in memory with the formatter of file type, same as
+     * {@link #reformat(DataObject)} without opening, modifying and saving the
+     * document of file. Java source is formatted by
+     * {@link JavaSourceFormatter}.
+     *
+     * @param content the unformatted content
+     * @param file the target file, to resolve the file type and the formatting
+     * preferences of project
+     * @return the formatted content or the content itself if it can not be
+     * formatted
+     */
+    public static String reformat(String content, FileObject file) {
+        String mimeType = file.getMIMEType();
+        if (JAVA_MIME_TYPE.equals(mimeType)) {
+            return JavaSourceFormatter.format(content, file.getParent());
+        }
+        try {
+            EditorKit kit = CloneableEditorSupport.getEditorKit(mimeType);
+            Document doc = kit.createDefaultDocument();
+            doc.putProperty("mimeType", mimeType); // NOI18N
+            doc.putProperty(Document.StreamDescriptionProperty, file);
+            String lineSeparator = content.contains("\r\n") ? "\r\n" : "\n";
+            doc.insertString(0, content.replace("\r\n", "\n"), null);
+
+            Reformat reformat = Reformat.get(doc);
+            reformat.lock();
+            try {
+                reformat.reformat(0, doc.getLength());
+            } finally {
+                reformat.unlock();
+            }
+            String formatted = doc.getText(0, doc.getLength());
+            return "\n".equals(lineSeparator) ? formatted : formatted.replace("\n", lineSeparator);
+        } catch (BadLocationException | RuntimeException ex) {
+            Logger.getLogger(JavaSourceHelper.class.getName()).log(Level.WARNING, "Unable to format " + file.getNameExt(), ex);
+            return content;
+        }
+    }
+
     /**
      * Returns the simple class for the passed fully-qualified class name.
      *
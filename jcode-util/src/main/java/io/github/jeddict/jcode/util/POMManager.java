@@ -569,11 +569,13 @@ public class POMManager extends BuildManager {
     
     @Override
     public POMManager commit() {
-        execute();
-        if (operations.size() > 0) {
-            Utilities.performPOMModelOperations(pomFileObject, operations);
+        try (GenerationProfile.Span span = GenerationProfile.phase("pom.commit")) {
+            execute();
+            if (operations.size() > 0) {
+                Utilities.performPOMModelOperations(pomFileObject, operations);
+            }
+            pomModel.endTransaction();
         }
-        pomModel.endTransaction();
         return this;
     }
     
@@ -585,7 +587,7 @@ public class POMManager extends BuildManager {
     
     public static void reload(Project project) {
         NbMavenProject mavenProject = project.getLookup().lookup(NbMavenProject.class);
-        try {
+        try (GenerationProfile.Span span = GenerationProfile.phase("pom.reload")) {
             FileObject pomFileObject = toFileObject(mavenProject.getMavenProject().getFile());
             POMModel model = POMModelFactory.getDefault().getModel(Utilities.createModelSource(pomFileObject));
             Utilities.saveChanges(model);
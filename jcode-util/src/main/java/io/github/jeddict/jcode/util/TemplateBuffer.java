@@ -0,0 +1,132 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reusable, unsynchronized buffer of template output, pooled per thread.
+ *
+ * Buffer is acquired for each expansion and released on close, so nested
+ * expansions on the same thread use separate buffers. Buffers grown beyond
+ * {@link #MAX_RETAINED_CAPACITY} are not pooled.
+ *
+ * <pre>
+ * try (TemplateBuffer buffer = TemplateBuffer.acquire()) {
+ *     TemplateRenderer.render(templatePath, values, buffer);
+ *     return buffer.toString();
+ * }
+ * </pre>
+ *
+ * @author Gaurav Gupta
+ */
+public final class TemplateBuffer extends Writer {
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 512 * 1024;
+    private static final int MAX_POOLED = 4;
+
+    private static final ThreadLocal<Deque<TemplateBuffer>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+
+    private boolean released;
+
+    private TemplateBuffer() {
+    }
+
+    /**
+     * @return the empty buffer from the pool of current thread
+     */
+    public static TemplateBuffer acquire() {
+        TemplateBuffer templateBuffer = POOL.get().poll();
+        if (templateBuffer == null) {
+            templateBuffer = new TemplateBuffer();
+        }
+        templateBuffer.released = false;
+        return templateBuffer;
+    }
+
+    @Override
+    public void write(int c) {
+        buffer.append((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        buffer.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str) {
+        buffer.append(str);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        buffer.append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+        buffer.append(csq);
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) {
+        buffer.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public Writer append(char c) {
+        buffer.append(c);
+        return this;
+    }
+
+    public int length() {
+        return buffer.length();
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Clears and returns the buffer to the pool of current thread.
+     */
+    @Override
+    public void close() {
+        if (released) {
+            return;
+        }
+        released = true;
+        Deque<TemplateBuffer> pool = POOL.get();
+        if (buffer.capacity() <= MAX_RETAINED_CAPACITY && pool.size() < MAX_POOLED) {
+            buffer.setLength(0);
+            pool.push(this);
+        }
+    }
+
+}
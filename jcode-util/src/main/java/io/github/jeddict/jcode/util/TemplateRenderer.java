@@ -0,0 +1,113 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import freemarker.cache.StrongCacheStorage;
+import freemarker.cache.URLTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * FreeMarker template rendering with one long-lived {@link Configuration}.
+ *
+ * Templates loaded by resource path are parsed once and cached by path, the
+ * cached template is reloaded only if the last-modified time of resource is
+ * changed. Configuration and templates are thread-safe, so the templates can be
+ * rendered concurrently.
+ *
+ * @author Gaurav Gupta
+ */
+public final class TemplateRenderer {
+
+    private static final String ENCODING_PROPERTY_NAME = "encoding"; //NOI18N
+
+    private static final Configuration CONFIGURATION = createConfiguration();
+
+    private TemplateRenderer() {
+    }
+
+    private static Configuration createConfiguration() {
+        // 2.3.0 compatibility level, same as of the NetBeans freemarker script engine
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_0);
+        configuration.setTemplateLoader(new ResourceTemplateLoader());
+        configuration.setCacheStorage(new StrongCacheStorage());
+        configuration.setLocalizedLookup(false);
+        configuration.setDefaultEncoding(Charset.defaultCharset().name());
+        configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        configuration.setLogTemplateExceptions(false);
+        DefaultObjectWrapperBuilder objectWrapper = new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_0);
+        objectWrapper.setUseAdaptersForContainers(true); // wrap lists and maps without copying
+        configuration.setObjectWrapper(objectWrapper.build());
+        return configuration;
+    }
+
+    /**
+     * Renders the cached template.
+     *
+     * @param templatePath the resource path of template
+     * @param values the data model
+     * @param writer the output
+     * @throws IOException if template is not found or rendering fails
+     */
+    public static void render(String templatePath, Map<String, Object> values, Writer writer) throws IOException {
+        render(templatePath, values, writer, Charset.defaultCharset());
+    }
+
+    public static void render(String templatePath, Map<String, Object> values, Writer writer, Charset targetEncoding) throws IOException {
+        process(CONFIGURATION.getTemplate(templatePath), values, writer, targetEncoding);
+    }
+
+    /**
+     * Renders the template content, the template is parsed on each call and
+     * not cached.
+     */
+    public static void render(Reader template, Map<String, Object> values, Writer writer, Charset targetEncoding) throws IOException {
+        try {
+            process(new Template(null, template, CONFIGURATION), values, writer, targetEncoding);
+        } finally {
+            template.close();
+        }
+    }
+
+    private static void process(Template template, Map<String, Object> values, Writer writer, Charset targetEncoding) throws IOException {
+        Map<String, Object> model = values == null ? new HashMap<>() : new HashMap<>(values);
+        model.put(ENCODING_PROPERTY_NAME, targetEncoding.name());
+        try (GenerationProfile.Span span = GenerationProfile.template(template.getName())) {
+            template.process(model, writer);
+        } catch (TemplateException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    private static class ResourceTemplateLoader extends URLTemplateLoader {
+
+        @Override
+        protected URL getURL(String name) {
+            return FileUtil.getResourceURL(name);
+        }
+    }
+
+}
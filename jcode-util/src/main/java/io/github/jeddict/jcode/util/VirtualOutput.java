@@ -0,0 +1,115 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jcode.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.util.Arrays;
+import static java.util.Collections.unmodifiableMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory output of generation, captures the content of generated files by
+ * absolute path without writing to disk or firing file events.
+ *
+ * Template output is captured as expanded, without the IDE reformatting of
+ * the written document, and generated sources do not have file objects.
+ *
+ * <pre>
+ * try (VirtualOutput output = VirtualOutput.open()) {
+ *     // generate
+ *     output.getFiles();
+ * }
+ * </pre>
+ *
+ * @author Gaurav Gupta
+ */
+public final class VirtualOutput extends GenerationOutput implements AutoCloseable {
+
+    private final Map<String, byte[]> files = new ConcurrentSkipListMap<>();
+
+    private GenerationContext.Scope scope;
+
+    private VirtualOutput() {
+    }
+
+    /**
+     * Opens the virtual output as the output of the generation run on the
+     * current thread, other runs are not affected.
+     */
+    public static VirtualOutput open() {
+        VirtualOutput output = new VirtualOutput();
+        output.scope = GenerationContext.getCurrent().withOutput(output).bind();
+        return output;
+    }
+
+    /**
+     * Restores the previous output of the current thread, captured files
+     * remain accessible.
+     */
+    @Override
+    public void close() {
+        if (scope != null) {
+            scope.close();
+            scope = null;
+        }
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return true;
+    }
+
+    @Override
+    public boolean write(File file, byte[] content) {
+        byte[] previous = files.put(file.getAbsolutePath(), content.clone());
+        GenerationProfile.written(content.length);
+        return !Arrays.equals(previous, content);
+    }
+
+    @Override
+    public OutputStream openOutputStream(File file) {
+        return new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() {
+                if (!closed) {
+                    closed = true;
+                    files.put(file.getAbsolutePath(), toByteArray());
+                    GenerationProfile.written(size());
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the content of generated files sorted by absolute path
+     */
+    public Map<String, byte[]> getFiles() {
+        return unmodifiableMap(files);
+    }
+
+    /**
+     * @return the content of generated file or null
+     */
+    public byte[] getContent(File file) {
+        return files.get(file.getAbsolutePath());
+    }
+
+}
@@ -93,6 +93,7 @@ import io.github.jeddict.jpa.spec.design.Shape;
 import io.github.jeddict.jpa.spec.extend.Attribute;
 import io.github.jeddict.jpa.spec.extend.BaseElement;
 import io.github.jeddict.jpa.spec.extend.CompositionAttribute;
+import io.github.jeddict.jpa.spec.extend.ElementCopier;
 import io.github.jeddict.jpa.spec.extend.ExtensionElements;
 import io.github.jeddict.jpa.spec.extend.FlowNode;
 import io.github.jeddict.jpa.spec.extend.IPersistenceAttributes;
@@ -110,6 +111,7 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -119,8 +121,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import static java.util.stream.Collectors.toSet;
 import javax.swing.ImageIcon;
 import static javax.swing.JOptionPane.YES_NO_OPTION;
 import static javax.swing.JOptionPane.YES_OPTION;
@@ -128,10 +132,11 @@ import static javax.swing.JOptionPane.showConfirmDialog;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
+import javax.xml.namespace.QName;
 import javax.xml.transform.stream.StreamSource;
 import io.github.jeddict.util.StringUtils;
 import java.io.BufferedReader;
@@ -139,7 +144,6 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import org.netbeans.api.visual.widget.Widget;
 import org.netbeans.modeler.config.document.IModelerDocument;
@@ -158,7 +162,6 @@ import org.netbeans.modeler.specification.model.document.core.IBaseElement;
 import org.netbeans.modeler.specification.model.document.widget.IBaseElementWidget;
 import org.netbeans.modeler.specification.model.util.IModelerUtil;
 import org.netbeans.modeler.specification.version.SoftwareVersion;
-import org.netbeans.modeler.validation.jaxb.ValidateJAXB;
 import org.netbeans.modeler.widget.edge.IEdgeWidget;
 import org.netbeans.modeler.widget.edge.info.EdgeWidgetInfo;
 import org.netbeans.modeler.widget.node.INodeWidget;
@@ -298,8 +301,8 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
     private final static Map<Class<? extends BaseElement>, String> BASE_ELEMENT_ICONS = new HashMap<>();
 
     private static JAXBContext MODELER_CONTEXT;
-    public static Unmarshaller MODELER_UNMARSHALLER;
-    public static Marshaller MODELER_MARSHALLER;
+    static ModelerMarshallerPool MODELER_MARSHALLER_POOL;
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
     public final static InputOutput IO;
     public final static String JPA_FILE_TYPE = "text/jpa+xml";
 
@@ -307,6 +310,7 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
 
         try {
             MODELER_CONTEXT = JAXBContext.newInstance(new Class<?>[]{EntityMappings.class, Entity.class, Attribute.class}); // unmarshaller will be always init before marshaller
+            MODELER_MARSHALLER_POOL = new ModelerMarshallerPool(MODELER_CONTEXT, Runtime.getRuntime().availableProcessors());
         } catch (JAXBException ex) {
             ExceptionUtils.printStackTrace(ex);
         }
@@ -452,24 +456,38 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
     }
 
     public static EntityMappings getEntityMapping(Source source) throws JAXBException {
-        EntityMappings definition_Load;
-        if (MODELER_UNMARSHALLER == null) {
-            MODELER_UNMARSHALLER = MODELER_CONTEXT.createUnmarshaller();
-            MODELER_UNMARSHALLER.setEventHandler(new ValidateJAXB());
-        }
-        definition_Load = MODELER_UNMARSHALLER.unmarshal(source, EntityMappings.class).getValue();
-        MODELER_UNMARSHALLER = null;//GC issue
-//        cleanUnMarshaller();
-        return definition_Load;
+        return MODELER_MARSHALLER_POOL.unmarshal(
+                unmarshaller -> unmarshaller.unmarshal(source, EntityMappings.class).getValue()
+        );
     }
 
     public static EntityMappings getEntityMapping(Reader reader) throws JAXBException {
         return getEntityMapping(new StreamSource(reader));
     }
 
+    public static EntityMappings getEntityMapping(XMLStreamReader reader) throws JAXBException {
+        return MODELER_MARSHALLER_POOL.unmarshal(
+                unmarshaller -> unmarshaller.unmarshal(reader, EntityMappings.class).getValue()
+        );
+    }
+
+    /**
+     * Streams the modeler file into JAXB, legacy <code>jpa:</code> prefix is
+     * stripped on the fly by {@link LegacyContentFilter} instead of copying the
+     * whole document into memory. Sharded model is composed from the manifest
+     * and class fragments by {@link ShardedModelStorage}.
+     */
     public static EntityMappings getEntityMapping(File file) throws JAXBException, IOException {
-        String content = filterLegacyContent(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
-        return getEntityMapping(new StringReader(content));
+        try (InputStream stream = ShardedModelStorage.openStream(file)) {
+            XMLStreamReader reader = new LegacyContentFilter(XML_INPUT_FACTORY.createXMLStreamReader(stream));
+            try {
+                return getEntityMapping(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException ex) {
+            throw new JAXBException(ex);
+        }
     }
 
     public static String filterLegacyContent(String content) {
@@ -478,15 +496,6 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
                 .replaceAll("</jpa:", "</");
     }
 
-    private static void cleanUnMarshaller() {
-        try {
-            String xmlStr = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><entity-mappings/>";
-            MODELER_UNMARSHALLER.unmarshal(new StreamSource(new StringReader(xmlStr)));
-        } catch (JAXBException ex) {
-            System.err.println(ex);
-        }
-    }
-
     @Override
     public void loadModelerFile(final ModelerFile modelerFile) throws ProcessInterruptedException {
 
@@ -494,9 +503,13 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
             JPAModelerScene scene = (JPAModelerScene) modelerFile.getModelerScene();
             scene.startSceneGeneration();
             File savedFile = modelerFile.getFile();
-            EntityMappings entityMappings = null;
+            ModelSnapshot snapshot = ModelSnapshot.getInstance(modelerFile);
+            EntityMappings entityMappings = snapshot != null ? snapshot.load() : null;
+            boolean repaired = entityMappings != null;
             try {
-                entityMappings = getEntityMapping(savedFile);
+                if (entityMappings == null) {
+                    entityMappings = getEntityMapping(savedFile);
+                }
             } catch (JAXBException ex) {
                 if (StringUtils.isBlank(modelerFile.getFileContent())) {
                     entityMappings = null;
@@ -510,6 +523,7 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
                 ElementConfigFactory elementConfigFactory = modelerFile.getModelerDiagramModel().getElementConfigFactory();
                 entityMappings = EntityMappings.getNewInstance(modelerFile.getCurrentVersion().getValue());
                 elementConfigFactory.initializeObjectValue(entityMappings);
+                snapshot = null;
             } else {
                 if (SoftwareVersion.getInstance(entityMappings.getVersion()).compareTo(modelerFile.getArchitectureVersion()) < 0) {
                     int reply = showConfirmDialog(WindowManager.getDefault().getMainWindow(),
@@ -522,6 +536,7 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
                         processor.syncExistingDiagram(modelerFile);
                         throw new ProcessInterruptedException("Reverse engineering initiated");
                     } else {
+                        snapshot = null;
                         entityMappings.setVersion(modelerFile.getCurrentVersion());
                         NotificationDisplayer.getDefault().notify(getMessage(JPAModelerUtil.class, "Notification.SVC_WARNING.title"),
                                 ImageUtilities.image2Icon(modelerFile.getIcon()),
@@ -537,21 +552,38 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
             modelerDiagram.setDefinitionElement(entityMappings);
             scene.setBaseElementSpec(entityMappings);
 
-            entityMappings.repairDefinition(IO);
+            Diagram diagram = entityMappings.getJPADiagram();
+            WorkSpace workSpace = diagram == null ? (WorkSpace) modelerFile.getAttribute(WORK_SPACE) : null;
+            // classes out of opened workspace are repaired on demand (save/generate),
+            // except the snapshot which stores the whole repaired model for every workspace
+            boolean repairWorkSpace = snapshot == null && diagram == null && !isRootWorkSpace(entityMappings, workSpace);
+            if (!repaired && !repairWorkSpace) {
+                entityMappings.repairDefinition(IO);
+                if (snapshot != null) {
+                    snapshot.store(entityMappings); // before the workspace specific changes
+                }
+            }
 
             scene.getWorkSpaceManager().reloadMainWorkSpace();
-            Diagram diagram = entityMappings.getJPADiagram();
-            WorkSpace workSpace;
-            if (diagram != null) {
-                entityMappings.getJavaClass().forEach(node -> loadFlowNode(scene, node));
-            } else {
-                workSpace = (WorkSpace) modelerFile.getAttribute(WORK_SPACE);
+            if (diagram == null) {
                 if (workSpace != null) {
                     entityMappings.setCurrentWorkSpace(workSpace.getId());
                 }
                 if (entityMappings.getPreviousWorkSpace() != entityMappings.getCurrentWorkSpace() && !entityMappings.isRootWorkSpace()) {
                     scene.getWorkSpaceManager().loadDependentItems(entityMappings.getCurrentWorkSpace());
                 }
+            }
+
+            if (!repaired && repairWorkSpace) {
+                entityMappings.repairDefinition(IO, entityMappings.getCurrentWorkSpace().getItems()
+                        .stream()
+                        .map(item -> item.getJavaClass())
+                        .collect(toSet()));
+            }
+
+            if (diagram != null) {
+                entityMappings.getJavaClass().forEach(node -> loadFlowNode(scene, node));
+            } else {
                 entityMappings.getCurrentWorkSpace().getItems()
                         .stream()
                         .map(item -> item.getJavaClass())
@@ -864,6 +896,19 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
         }
     }
 
+    /**
+     * @param workSpace the workspace to be opened or null for the current
+     * workspace of model
+     * @return true if the root workspace is going to be opened
+     */
+    private static boolean isRootWorkSpace(EntityMappings entityMappings, WorkSpace workSpace) {
+        WorkSpace openedWorkSpace = workSpace == null ? null : entityMappings.findWorkSpace(workSpace.getId()).orElse(null);
+        if (openedWorkSpace == null) {
+            openedWorkSpace = entityMappings.getCurrentWorkSpace();
+        }
+        return openedWorkSpace == entityMappings.getRootWorkSpace();
+    }
+
     private INodeWidget loadFlowNode(JPAModelerScene scene, FlowNode flowNode) {
         INodeWidget nodeWidget;
         IModelerDocument document = null;
@@ -1168,28 +1213,42 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
     }
 
     private static void saveFile(EntityMappings entityMappings, File file) {
-        try(FileWriter fileWriter = new FileWriter(file)) {
-            if (MODELER_MARSHALLER == null) {
-                MODELER_MARSHALLER = MODELER_CONTEXT.createMarshaller();
-                MODELER_MARSHALLER.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-                MODELER_MARSHALLER.setEventHandler(new ValidateJAXB());
-            }
-            MODELER_MARSHALLER.marshal(entityMappings, fileWriter);
+        try {
+            saveEntityMapping(entityMappings, file);
         } catch (JAXBException | IOException ex) {
             ExceptionUtils.printStackTrace(ex);
         }
     }
 
+    /**
+     * Saves the model in the monolithic or sharded layout (see
+     * {@link ShardedModelStorage}), the counterpart of
+     * {@link #getEntityMapping(java.io.File)}.
+     */
+    public static void saveEntityMapping(EntityMappings entityMappings, File file) throws JAXBException, IOException {
+        if (Boolean.TRUE.equals(entityMappings.getShardedStorage())) {
+            ShardedModelStorage.save(entityMappings, file);
+        } else {
+            boolean sharded = ShardedModelStorage.isSharded(file);
+            try (FileWriter fileWriter = new FileWriter(file)) {
+                MODELER_MARSHALLER_POOL.marshal(marshaller -> {
+                    marshaller.marshal(entityMappings, fileWriter);
+                    return null;
+                });
+            }
+            if (sharded) { // switched back to monolithic layout
+                ShardedModelStorage.clear(file);
+            }
+        }
+    }
+
     public String getContent(EntityMappings entityMappings) {
         StringWriter sw = new StringWriter();
         try {
-            if (MODELER_MARSHALLER == null) {
-                MODELER_MARSHALLER = MODELER_CONTEXT.createMarshaller();
-                MODELER_MARSHALLER.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-                MODELER_MARSHALLER.setEventHandler(new ValidateJAXB());
-            }
-            MODELER_MARSHALLER.marshal(entityMappings, sw);
-
+            MODELER_MARSHALLER_POOL.marshal(marshaller -> {
+                marshaller.marshal(entityMappings, sw);
+                return null;
+            });
         } catch (JAXBException ex) {
             ExceptionUtils.printStackTrace(ex);
         }
@@ -1273,25 +1332,38 @@ public class JPAModelerUtil implements IModelerUtil<JPAModelerScene> {
         return clonedElements;
     }
 
+    /**
+     * Deep copies the element graph in memory, references to the elements out
+     * of the copied graph are left unresolved (same as JAXB round trip) and
+     * restored by {@link #copyRef}. Graphs with types not supported by
+     * {@link ElementCopier} are copied by JAXB round trip.
+     */
     public <T extends Object> T cloneElement(T element) {
+        Optional<T> clonedElement = Optional.empty();
+        try {
+            clonedElement = MODELER_MARSHALLER_POOL.copy(element);
+        } catch (JAXBException ex) {
+            ExceptionUtils.printStackTrace(ex);
+        }
+        return clonedElement.orElseGet(() -> cloneElementByJAXB(element));
+    }
+
+    private <T extends Object> T cloneElementByJAXB(T element) {
         T clonedElement = null;
         try {
-            if (MODELER_MARSHALLER == null) {
-                MODELER_MARSHALLER = MODELER_CONTEXT.createMarshaller();
-                MODELER_MARSHALLER.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-                MODELER_MARSHALLER.setEventHandler(new ValidateJAXB());
-            }
             StringWriter sw = new StringWriter();
             QName qName = new QName(element.getClass().getSimpleName());
             JAXBElement<T> root = new JAXBElement<>(qName, (Class<T>) element.getClass(), (T) element);
-            MODELER_MARSHALLER.marshal(root, sw);
+            MODELER_MARSHALLER_POOL.marshal(marshaller -> {
+                marshaller.marshal(root, sw);
+                return null;
+            });
 
-            if (MODELER_UNMARSHALLER == null) {
-                MODELER_UNMARSHALLER = MODELER_CONTEXT.createUnmarshaller();
-            }
             StringReader reader = new StringReader(sw.toString());
-            clonedElement = (T) MODELER_UNMARSHALLER.unmarshal(new StreamSource(reader), (Class<T>) element.getClass()).getValue();
-            MODELER_UNMARSHALLER = null;
+            clonedElement = MODELER_MARSHALLER_POOL.unmarshal(unmarshaller -> {
+                unmarshaller.setEventHandler(null);
+                return unmarshaller.unmarshal(new StreamSource(reader), (Class<T>) element.getClass()).getValue();
+            });
         } catch (JAXBException ex) {
             ExceptionUtils.printStackTrace(ex);
         }
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.modeler.initializer;
+
+import static javax.xml.XMLConstants.DEFAULT_NS_PREFIX;
+import static javax.xml.XMLConstants.NULL_NS_URI;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * Streaming counterpart of {@link JPAModelerUtil#filterLegacyContent(String)},
+ * elements written with the legacy <code>jpa:</code> prefix are reported as
+ * unprefixed elements of the default namespace while the document is read.
+ *
+ * @author Gaurav Gupta
+ */
+class LegacyContentFilter extends StreamReaderDelegate {
+
+    private static final String LEGACY_PREFIX = "jpa";
+
+    LegacyContentFilter(XMLStreamReader reader) {
+        super(reader);
+    }
+
+    private boolean isLegacyElement() {
+        return (isStartElement() || isEndElement())
+                && LEGACY_PREFIX.equals(super.getPrefix());
+    }
+
+    @Override
+    public String getPrefix() {
+        return isLegacyElement() ? DEFAULT_NS_PREFIX : super.getPrefix();
+    }
+
+    @Override
+    public String getNamespaceURI() {
+        if (isLegacyElement()) {
+            String namespaceURI = super.getNamespaceURI(DEFAULT_NS_PREFIX);
+            return namespaceURI == null ? NULL_NS_URI : namespaceURI;
+        }
+        return super.getNamespaceURI();
+    }
+
+    @Override
+    public QName getName() {
+        return isLegacyElement() ? new QName(getNamespaceURI(), getLocalName()) : super.getName();
+    }
+
+}
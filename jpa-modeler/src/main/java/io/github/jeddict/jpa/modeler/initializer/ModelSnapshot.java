@@ -0,0 +1,249 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.modeler.initializer;
+
+import io.github.jeddict.jpa.spec.EntityMappings;
+import io.github.jeddict.jpa.spec.extend.ElementCopier;
+import static io.github.jeddict.jpa.modeler.initializer.JPAModelerUtil.MODELER_MARSHALLER_POOL;
+import static io.github.jeddict.jpa.modeler.initializer.JPAModelerUtil.getModelerFileVersion;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.transform.stream.StreamSource;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ProjectUtils;
+import org.netbeans.modeler.core.ModelerFile;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Cache of the repaired {@link EntityMappings} document, keyed by the content
+ * hash of the modeler file and the modeler version. Re-opening an unchanged
+ * model skips legacy content filtering and
+ * {@link EntityMappings#repairDefinition(org.openide.windows.InputOutput)}.
+ *
+ * Only warm re-opens are accelerated : the repaired model is kept in memory
+ * (softly referenced) and a re-open in the same JVM copies it with
+ * {@link ElementCopier} without parsing. The snapshot file in the project
+ * cache directory is the gzipped JAXB document of the repaired model, not a
+ * binary form, so a cold re-open (first in the JVM or after the soft
+ * reference is cleared) still parses the XML and only skips the legacy
+ * content filtering and the repair.
+ *
+ * The snapshot is taken after the repair of whole model and before the
+ * workspace specific changes of the opened diagram, so it serves every
+ * workspace. With snapshot enabled, opening a workspace other than root
+ * repairs the whole model instead of only the classes of workspace.
+ *
+ * Enabled with <code>-J-Djeddict.model.snapshot=true</code>.
+ *
+ * @author Gaurav Gupta
+ */
+class ModelSnapshot {
+
+    private static final Logger LOGGER = Logger.getLogger(ModelSnapshot.class.getName());
+    private static final boolean ENABLED = Boolean.getBoolean("jeddict.model.snapshot");
+    private static final String EXTENSION = ".snapshot";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Repaired models by snapshot file, never handed out to the editor.
+     */
+    private static final Map<File, SoftReference<CachedModel>> CACHED_MODELS = new ConcurrentHashMap<>();
+
+    private final File modelFile;
+    private final File snapshotFile;
+    private final String version;
+    private String contentHash;
+
+    private ModelSnapshot(File modelFile, File snapshotFile) {
+        this.modelFile = modelFile;
+        this.snapshotFile = snapshotFile;
+        this.version = getModelerFileVersion();
+    }
+
+    /**
+     * @return the snapshot of the modeler file or null if snapshot is disabled
+     * or modeler file does not belong to any project.
+     */
+    static ModelSnapshot getInstance(ModelerFile modelerFile) {
+        if (!ENABLED) {
+            return null;
+        }
+        Project project = modelerFile.getProject();
+        FileObject fileObject = modelerFile.getModelerFileDataObject().getPrimaryFile();
+        if (project == null || fileObject == null) {
+            return null;
+        }
+        try {
+            FileObject cacheDir = ProjectUtils.getCacheDirectory(project, JPAModelerUtil.class);
+            String relativePath = FileUtil.getRelativePath(project.getProjectDirectory(), fileObject);
+            if (relativePath == null) {
+                relativePath = fileObject.getPath();
+            }
+            String snapshotName = fileObject.getName() + '-' + Integer.toHexString(relativePath.hashCode()) + EXTENSION;
+            return new ModelSnapshot(modelerFile.getFile(), new File(FileUtil.toFile(cacheDir), snapshotName));
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Snapshot cache directory not available", ex);
+            return null;
+        }
+    }
+
+    /**
+     * @return the copy of repaired model if snapshot exist for current content
+     * of modeler file and modeler version otherwise null.
+     */
+    EntityMappings load() {
+        SoftReference<CachedModel> reference = CACHED_MODELS.get(snapshotFile);
+        CachedModel cachedModel = reference == null ? null : reference.get();
+        try {
+            if (cachedModel != null && cachedModel.isValid(version, getContentHash())) {
+                Optional<EntityMappings> copy = MODELER_MARSHALLER_POOL.copy(cachedModel.entityMappings);
+                if (copy.isPresent()) {
+                    return copy.get();
+                }
+            }
+        } catch (IOException | JAXBException ex) {
+            LOGGER.log(Level.FINE, "Unable to copy cached model " + snapshotFile, ex);
+        }
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        EntityMappings entityMappings;
+        try (DataInputStream stream = new DataInputStream(new GZIPInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotFile.toPath()), BUFFER_SIZE)))) {
+            if (!version.equals(stream.readUTF())
+                    || !getContentHash().equals(stream.readUTF())) {
+                return null;
+            }
+            entityMappings = MODELER_MARSHALLER_POOL.unmarshal(
+                    unmarshaller -> unmarshaller.unmarshal(new StreamSource(stream), EntityMappings.class).getValue()
+            );
+        } catch (IOException | JAXBException ex) {
+            LOGGER.log(Level.FINE, "Unable to load snapshot " + snapshotFile, ex);
+            return null;
+        }
+        cache(entityMappings);
+        return entityMappings;
+    }
+
+    /**
+     * Stores the repaired model against the current content of modeler file,
+     * must be called before the workspace specific changes of model.
+     */
+    void store(EntityMappings entityMappings) {
+        cache(entityMappings);
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+        try {
+            try (OutputStream fileStream = new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()), BUFFER_SIZE);
+                    DataOutputStream stream = new DataOutputStream(new GZIPOutputStream(fileStream, BUFFER_SIZE))) {
+                stream.writeUTF(version);
+                stream.writeUTF(getContentHash());
+                MODELER_MARSHALLER_POOL.marshal(marshaller -> {
+                    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
+                    marshaller.marshal(entityMappings, stream);
+                    return null;
+                });
+            }
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | JAXBException ex) {
+            LOGGER.log(Level.FINE, "Unable to store snapshot " + snapshotFile, ex);
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Keeps the copy of repaired model in memory, the given model is modified
+     * by the editor.
+     */
+    private void cache(EntityMappings entityMappings) {
+        try {
+            Optional<EntityMappings> copy = MODELER_MARSHALLER_POOL.copy(entityMappings);
+            if (copy.isPresent()) {
+                CACHED_MODELS.put(snapshotFile, new SoftReference<>(new CachedModel(version, getContentHash(), copy.get())));
+                return;
+            }
+            LOGGER.log(Level.FINE, "Model {0} can not be copied in memory", snapshotFile);
+        } catch (IOException | JAXBException ex) {
+            LOGGER.log(Level.FINE, "Unable to cache model " + snapshotFile, ex);
+        }
+        CACHED_MODELS.remove(snapshotFile);
+    }
+
+    private String getContentHash() throws IOException {
+        if (contentHash == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] buffer = new byte[BUFFER_SIZE];
+                for (Path path : ShardedModelStorage.getModelFiles(modelFile)) { // manifest and class fragments
+                    digest.update(path.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                    try (DigestInputStream stream = new DigestInputStream(Files.newInputStream(path), digest)) {
+                        while (stream.read(buffer) != -1) {
+                            // digest is updated while reading
+                        }
+                    }
+                }
+                StringBuilder hash = new StringBuilder();
+                for (byte b : digest.digest()) {
+                    hash.append(String.format("%02x", b));
+                }
+                contentHash = hash.toString();
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IOException(ex);
+            }
+        }
+        return contentHash;
+    }
+
+    private static class CachedModel {
+
+        private final String version;
+        private final String contentHash;
+        private final EntityMappings entityMappings;
+
+        private CachedModel(String version, String contentHash, EntityMappings entityMappings) {
+            this.version = version;
+            this.contentHash = contentHash;
+            this.entityMappings = entityMappings;
+        }
+
+        private boolean isValid(String version, String contentHash) {
+            return this.version.equals(version) && this.contentHash.equals(contentHash);
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.modeler.initializer;
+
+import io.github.jeddict.jpa.spec.extend.ElementCopier;
+import java.io.StringReader;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.stream.StreamSource;
+import org.netbeans.modeler.validation.jaxb.ValidateJAXB;
+
+/**
+ * Bounded pool of {@link Marshaller} and {@link Unmarshaller} instances
+ * created from the shared modeler {@link JAXBContext}. JAXB marshallers are
+ * not thread-safe, so each caller borrows its own instance for the duration
+ * of one operation and returns it reset to the default configuration.
+ *
+ * @author Gaurav Gupta
+ */
+class ModelerMarshallerPool {
+
+    private static final String EMPTY_DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><entity-mappings/>";
+
+    private final JAXBContext context;
+    private final BlockingQueue<Marshaller> marshallers;
+    private final BlockingQueue<Unmarshaller> unmarshallers;
+
+    ModelerMarshallerPool(JAXBContext context, int size) {
+        this.context = context;
+        this.marshallers = new ArrayBlockingQueue<>(size);
+        this.unmarshallers = new ArrayBlockingQueue<>(size);
+    }
+
+    @FunctionalInterface
+    interface JAXBTask<T, R> {
+
+        R execute(T t) throws JAXBException;
+    }
+
+    <R> R marshal(JAXBTask<Marshaller, R> task) throws JAXBException {
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            marshaller = createMarshaller();
+        }
+        try {
+            return task.execute(marshaller);
+        } finally {
+            release(marshaller);
+        }
+    }
+
+    <R> R unmarshal(JAXBTask<Unmarshaller, R> task) throws JAXBException {
+        return unmarshal(task, true);
+    }
+
+    /**
+     * @param unmarshalling false if the task only passes the unmarshaller to
+     * the callbacks, then the instance is returned to the pool without reset.
+     */
+    private <R> R unmarshal(JAXBTask<Unmarshaller, R> task, boolean unmarshalling) throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+        if (unmarshaller == null) {
+            unmarshaller = createUnmarshaller();
+        }
+        try {
+            return task.execute(unmarshaller);
+        } finally {
+            release(unmarshaller, unmarshalling);
+        }
+    }
+
+    /**
+     * Copies the element in memory by {@link ElementCopier}, the borrowed
+     * instances are passed to the marshal and unmarshal callbacks.
+     *
+     * @return the copy of element, empty if the element can not be copied
+     * without the JAXB round trip
+     */
+    <T> Optional<T> copy(T element) throws JAXBException {
+        return marshal(marshaller -> unmarshal(unmarshaller -> ElementCopier.copy(element, marshaller, unmarshaller), false));
+    }
+
+    private Marshaller createMarshaller() throws JAXBException {
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        marshaller.setEventHandler(new ValidateJAXB());
+        return marshaller;
+    }
+
+    private Unmarshaller createUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = context.createUnmarshaller();
+        unmarshaller.setEventHandler(new ValidateJAXB());
+        return unmarshaller;
+    }
+
+    private void release(Marshaller marshaller) {
+        try {
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, false);
+            marshaller.setEventHandler(new ValidateJAXB());
+            marshallers.offer(marshaller);
+        } catch (JAXBException ex) {
+            // discard the broken instance, a new one is created on demand
+        }
+    }
+
+    /**
+     * Unmarshaller retains the last unmarshalled graph (GC issue), so a tiny
+     * document is unmarshalled before the instance is returned to the pool,
+     * only if the borrower has unmarshalled.
+     */
+    private void release(Unmarshaller unmarshaller, boolean unmarshalled) {
+        try {
+            if (unmarshalled) {
+                unmarshaller.setEventHandler(null);
+                unmarshaller.unmarshal(new StreamSource(new StringReader(EMPTY_DOCUMENT)));
+            }
+            unmarshaller.setEventHandler(new ValidateJAXB());
+            unmarshallers.offer(unmarshaller);
+        } catch (JAXBException ex) {
+            // discard the broken instance, a new one is created on demand
+        }
+    }
+
+}
@@ -57,6 +57,7 @@ public class PreExecutionUtil {
         JPAModelerScene scene = (JPAModelerScene) file.getModelerScene();
         EntityMappings entityMappings = (EntityMappings) file.getDefinitionElement();
 
+        entityMappings.repairPendingDefinition(JPAModelerUtil.IO);
         entityMappings.getDefaultClass().clear();
         for (IBaseElementWidget baseElementWidget : scene.getBaseElements()) {
             if (baseElementWidget instanceof FlowNodeWidget) {
@@ -0,0 +1,371 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.modeler.initializer;
+
+import static io.github.jeddict.jpa.modeler.initializer.JPAModelerUtil.MODELER_MARSHALLER_POOL;
+import io.github.jeddict.jpa.spec.EntityMappings;
+import io.github.jeddict.jpa.spec.extend.JavaClass;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Alternative storage layout of the modeler file, the <code>.jpa</code> file
+ * holds the manifest (model without classes) and each class is persisted in a
+ * separate fragment file in sibling <code>&lt;name&gt;.fragments</code>
+ * directory.
+ *
+ * Fragments listed in the fragment index are read in parallel and spliced
+ * into the manifest before the closing root tag, in the index order, so JAXB
+ * resolves the ids and references across the fragments in one pass. Other
+ * files of the directory are never read nor deleted. The fragments are used
+ * only if the manifest is flagged as sharded, a left over fragment directory
+ * of monolithic model is ignored.
+ *
+ * On save, only the changed files are rewritten, each through a temporary file
+ * renamed to the target so a crash never leaves a truncated file. The
+ * manifest is marshalled from a detached copy of the model, the live model is
+ * not modified.
+ *
+ * @author Gaurav Gupta
+ */
+class ShardedModelStorage {
+
+    private static final String FRAGMENT_DIRECTORY_SUFFIX = ".fragments";
+    private static final String FRAGMENT_EXTENSION = ".xml";
+    private static final String FRAGMENT_INDEX = "fragments.lst";
+    private static final String ROOT_END_TAG = "</entity-mappings>";
+    private static final String SHARDED_ATTRIBUTE = "shrd";
+    private static final Set<String> CLASS_FIELDS = new HashSet<>(Arrays.asList("mappedSuperclass", "entity", "embeddable", "beanClass"));
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    private ShardedModelStorage() {
+    }
+
+    static File getFragmentDirectory(File modelFile) {
+        String name = modelFile.getName();
+        int extensionIndex = name.lastIndexOf('.');
+        if (extensionIndex > 0) {
+            name = name.substring(0, extensionIndex);
+        }
+        return new File(modelFile.getParentFile(), name + FRAGMENT_DIRECTORY_SUFFIX);
+    }
+
+    /**
+     * @return true if the modeler file is the manifest of sharded layout, used
+     * to detect the switch to monolithic layout.
+     */
+    static boolean isSharded(File modelFile) throws IOException {
+        if (!modelFile.isFile() || !getFragmentDirectory(modelFile).isDirectory()) {
+            return false;
+        }
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(modelFile.toPath()))) {
+            return isSharded(stream);
+        }
+    }
+
+    /**
+     * @return true if the root element of manifest is flagged as sharded.
+     */
+    private static boolean isSharded(InputStream manifest) {
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(manifest);
+            try {
+                reader.nextTag();
+                return Boolean.parseBoolean(reader.getAttributeValue(null, SHARDED_ATTRIBUTE));
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException ex) {
+            return false; // malformed document is reported by JAXB
+        }
+    }
+
+    /**
+     * @return the manifest, fragment index and the fragment files in class
+     * order.
+     */
+    static List<Path> getModelFiles(File modelFile) throws IOException {
+        List<Path> files = new ArrayList<>();
+        files.add(modelFile.toPath());
+        Path index = new File(getFragmentDirectory(modelFile), FRAGMENT_INDEX).toPath();
+        if (Files.exists(index)) {
+            files.add(index);
+        }
+        files.addAll(getFragmentFiles(modelFile));
+        return files;
+    }
+
+    /**
+     * @return the fragment files listed in the fragment index, in the index
+     * order.
+     */
+    private static List<Path> getFragmentFiles(File modelFile) throws IOException {
+        File fragmentDirectory = getFragmentDirectory(modelFile);
+        Path index = new File(fragmentDirectory, FRAGMENT_INDEX).toPath();
+        if (!Files.exists(index)) {
+            return Collections.emptyList();
+        }
+        List<Path> fragments = new ArrayList<>();
+        for (String name : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            if (!name.isEmpty()) {
+                fragments.add(new File(fragmentDirectory, name).toPath());
+            }
+        }
+        return fragments;
+    }
+
+    /**
+     * @return the stream of complete model document, for the monolithic
+     * layout it is the modeler file itself.
+     */
+    static InputStream openStream(File modelFile) throws IOException {
+        if (!getFragmentDirectory(modelFile).isDirectory()) {
+            return new BufferedInputStream(Files.newInputStream(modelFile.toPath()), BUFFER_SIZE);
+        }
+        byte[] manifest = Files.readAllBytes(modelFile.toPath());
+        if (!isSharded(new ByteArrayInputStream(manifest))) {
+            return new ByteArrayInputStream(manifest);
+        }
+        List<byte[]> fragments;
+        try {
+            fragments = getFragmentFiles(modelFile)
+                    .parallelStream()
+                    .map(ShardedModelStorage::readFragment)
+                    .collect(toList());
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        String content = new String(manifest, StandardCharsets.UTF_8);
+        int rootEndIndex = content.lastIndexOf(ROOT_END_TAG);
+        List<InputStream> streams = new ArrayList<>();
+        if (rootEndIndex != -1) {
+            int offset = content.substring(0, rootEndIndex).getBytes(StandardCharsets.UTF_8).length;
+            streams.add(new ByteArrayInputStream(manifest, 0, offset));
+            fragments.forEach(fragment -> streams.add(new ByteArrayInputStream(fragment)));
+            streams.add(new ByteArrayInputStream(manifest, offset, manifest.length - offset));
+        } else { // empty root element <entity-mappings ... />
+            int offset = content.substring(0, content.lastIndexOf("/>")).getBytes(StandardCharsets.UTF_8).length;
+            streams.add(new ByteArrayInputStream(manifest, 0, offset));
+            streams.add(new ByteArrayInputStream(">".getBytes(StandardCharsets.UTF_8)));
+            fragments.forEach(fragment -> streams.add(new ByteArrayInputStream(fragment)));
+            streams.add(new ByteArrayInputStream(ROOT_END_TAG.getBytes(StandardCharsets.UTF_8)));
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    private static byte[] readFragment(Path fragment) {
+        try {
+            return Files.readAllBytes(fragment);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Saves the changed fragments, then the fragment index and manifest, and
+     * at last deletes the fragments of removed or renamed classes listed in
+     * the previous index. An interrupted save leaves either the previous or
+     * the new index, with all the fragments it lists.
+     */
+    static void save(EntityMappings entityMappings, File modelFile) throws IOException, JAXBException {
+        File fragmentDirectory = getFragmentDirectory(modelFile);
+        if (!fragmentDirectory.isDirectory() && !fragmentDirectory.mkdirs()) {
+            throw new IOException("Unable to create directory " + fragmentDirectory);
+        }
+        List<Fragment> fragments = new ArrayList<>();
+        entityMappings.getMappedSuperclass().forEach(c -> fragments.add(new Fragment("mapped-superclass", c)));
+        entityMappings.getEntity().forEach(c -> fragments.add(new Fragment("entity", c)));
+        entityMappings.getEmbeddable().forEach(c -> fragments.add(new Fragment("embeddable", c)));
+        entityMappings.getBeanClass().forEach(c -> fragments.add(new Fragment("beanClass", c)));
+
+        Set<Path> staleFragments = new HashSet<>(getFragmentFiles(modelFile));
+        try {
+            fragments.parallelStream().forEach(fragment -> {
+                Path path = new File(fragmentDirectory, fragment.getFileName()).toPath();
+                writeIfChanged(path, fragment.marshal());
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } catch (IllegalStateException ex) {
+            if (ex.getCause() instanceof JAXBException) {
+                throw (JAXBException) ex.getCause();
+            }
+            throw ex;
+        }
+
+        try {
+            String index = fragments.stream().map(Fragment::getFileName).collect(joining("\n"));
+            writeIfChanged(new File(fragmentDirectory, FRAGMENT_INDEX).toPath(), index.getBytes(StandardCharsets.UTF_8));
+            writeIfChanged(modelFile.toPath(), marshalManifest(entityMappings));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        for (Fragment fragment : fragments) {
+            staleFragments.remove(new File(fragmentDirectory, fragment.getFileName()).toPath());
+        }
+        for (Path staleFragment : staleFragments) {
+            Files.deleteIfExists(staleFragment);
+        }
+    }
+
+    /**
+     * Removes the indexed fragments and the fragment index, invoked after the
+     * model is switched back to monolithic layout. The directory is removed
+     * only if no other (foreign) file is left in it.
+     */
+    static void clear(File modelFile) throws IOException {
+        File fragmentDirectory = getFragmentDirectory(modelFile);
+        if (fragmentDirectory.isDirectory()) {
+            for (Path fragment : getFragmentFiles(modelFile)) {
+                Files.deleteIfExists(fragment);
+            }
+            Files.deleteIfExists(new File(fragmentDirectory, FRAGMENT_INDEX).toPath());
+            try {
+                Files.deleteIfExists(fragmentDirectory.toPath());
+            } catch (DirectoryNotEmptyException ex) {
+                // foreign files are kept
+            }
+        }
+    }
+
+    private static byte[] marshalManifest(EntityMappings entityMappings) throws JAXBException {
+        EntityMappings manifest = createManifest(entityMappings);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        MODELER_MARSHALLER_POOL.marshal(marshaller -> {
+            marshaller.marshal(manifest, stream);
+            return null;
+        });
+        return stream.toByteArray();
+    }
+
+    /**
+     * @return the shallow copy of model without the class lists, the
+     * transient final state (indexes) of copy is not shared.
+     */
+    private static EntityMappings createManifest(EntityMappings entityMappings) {
+        EntityMappings manifest = EntityMappings.getNewInstance(entityMappings.getVersion());
+        for (Class<?> type = EntityMappings.class; type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers)
+                        || Modifier.isFinal(modifiers)
+                        || (type == EntityMappings.class && CLASS_FIELDS.contains(field.getName()))) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    field.set(manifest, field.get(entityMappings));
+                } catch (IllegalAccessException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private static void writeIfChanged(Path path, byte[] content) {
+        try {
+            if (Files.exists(path)
+                    && Files.size(path) == content.length
+                    && Arrays.equals(Files.readAllBytes(path), content)) {
+                return;
+            }
+            Path temp = path.resolveSibling('.' + path.getFileName().toString() + '.' + Thread.currentThread().getId() + ".tmp");
+            try {
+                Files.write(temp, content);
+                try {
+                    Files.move(temp, path, ATOMIC_MOVE, REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(temp, path, REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static class Fragment {
+
+        private final String elementName;
+        private final JavaClass javaClass;
+
+        private Fragment(String elementName, JavaClass javaClass) {
+            this.elementName = elementName;
+            this.javaClass = javaClass;
+        }
+
+        private String getFileName() {
+            String clazz = javaClass.getClazz();
+            return (clazz == null ? "" : clazz) + javaClass.getId() + FRAGMENT_EXTENSION;
+        }
+
+        private byte[] marshal() {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            JAXBElement<JavaClass> element = new JAXBElement<>(new QName(elementName), JavaClass.class, javaClass);
+            try {
+                MODELER_MARSHALLER_POOL.marshal(marshaller -> {
+                    marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+                    try {
+                        marshaller.marshal(element, stream);
+                    } finally {
+                        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, false);
+                    }
+                    return null;
+                });
+            } catch (JAXBException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return stream.toByteArray();
+        }
+    }
+
+}
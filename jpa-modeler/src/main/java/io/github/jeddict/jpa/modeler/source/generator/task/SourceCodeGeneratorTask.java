@@ -25,18 +25,26 @@ import io.github.jeddict.jcode.task.ITaskSupervisor;
 import io.github.jeddict.jcode.task.progress.ProgressConsoleHandler;
 import io.github.jeddict.jcode.task.progress.ProgressHandler;
 import static io.github.jeddict.jcode.util.FileUtil.readString;
+import io.github.jeddict.jcode.util.GenerationContext;
+import io.github.jeddict.jcode.util.GenerationManifest;
+import io.github.jeddict.jcode.util.GenerationProfile;
 import io.github.jeddict.jpa.modeler.initializer.PreExecutionUtil;
 import io.github.jeddict.jpa.spec.EntityMappings;
 import io.github.jeddict.orm.generator.IPersistenceXMLGenerator;
 import io.github.jeddict.orm.generator.ISourceCodeGenerator;
 import io.github.jeddict.orm.generator.ISourceCodeGeneratorFactory;
 import io.github.jeddict.orm.generator.SourceCodeGeneratorType;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
+import java.util.Objects;
+import java.util.stream.Stream;
 import org.netbeans.api.progress.aggregate.AggregateProgressFactory;
 import org.netbeans.api.progress.aggregate.ProgressContributor;
+import org.netbeans.api.project.Project;
 import org.netbeans.modeler.core.ModelerFile;
+import org.openide.filesystems.FileUtil;
 import org.openide.util.Exceptions;
 import org.openide.util.Lookup;
 import static org.openide.util.NbBundle.getMessage;
@@ -112,37 +120,90 @@ public class SourceCodeGeneratorTask extends AbstractNBTask {
         ProgressHandler handler = new ProgressConsoleHandler(task);
         handler.append(BANNER_TXT);
 
+        appConfigData.setEntityMappings(entityMappings);
+        Project project = appConfigData.isGateway() ? appConfigData.getGatewayProject() : appConfigData.getTargetProject();
+        GenerationProfile profile = GenerationProfile.start();
+        GenerationManifest manifest = GenerationManifest.open(project, false);
+        try (GenerationContext.Scope scope = GenerationContext.getCurrent().withManifest(manifest).bind()) {
+            // file events of all generated files are delivered in one batch
+            FileUtil.runAtomicAction((Runnable) () -> generate(appConfigData, entityMappings, task, handler));
+        } finally {
+            try (GenerationProfile.Span span = GenerationProfile.phase("refresh")) {
+                refresh(appConfigData);
+            }
+            manifest.close();
+            task.log(Console.wrap("Changed files : " + manifest.getChangedCount()
+                    + ", unchanged files : " + manifest.getUnchangedCount(), FG_DARK_RED), true);
+            profile.close();
+            profile.getSummary().forEach(line -> task.log(line, true));
+            File profileFile = profile.write(project);
+            if (profileFile != null) {
+                task.log("Generation profile : " + profileFile.getAbsolutePath(), true);
+            }
+        }
+        entityMappings.cleanRuntimeArtifact();
+
+    }
+
+    private static void generate(
+            ApplicationConfigData appConfigData,
+            EntityMappings entityMappings,
+            ITaskSupervisor task,
+            ProgressHandler handler) {
+
         ISourceCodeGeneratorFactory sourceGeneratorFactory = Lookup.getDefault().lookup(ISourceCodeGeneratorFactory.class);
         ISourceCodeGenerator domainGenerator = sourceGeneratorFactory.getSourceGenerator(SourceCodeGeneratorType.JPA);
         ApplicationGenerator applicationGenerator = null;
-        
-        appConfigData.setEntityMappings(entityMappings);
-        if (appConfigData.getRepositoryTechContext()!= null) {
+
+        if (appConfigData.getRepositoryTechContext() != null) {
             applicationGenerator = new ApplicationGenerator();
             applicationGenerator.initialize(appConfigData, handler);
-            applicationGenerator.preGeneration();
+            try (GenerationProfile.Span span = GenerationProfile.phase("application.preGeneration")) {
+                applicationGenerator.preGeneration();
+            }
         }
-        
+
         if (appConfigData.isMonolith() || appConfigData.isMicroservice()) {
-            domainGenerator.generate(task, appConfigData);
+            try (GenerationProfile.Span span = GenerationProfile.phase("jpa")) {
+                domainGenerator.generate(task, appConfigData);
+            }
         }
         if (appConfigData.isGateway()) {
-            Lookup.getDefault()
-                    .lookup(IPersistenceXMLGenerator.class)
-                    .generatePersistenceXML(
-                            task,
-                            appConfigData.getGatewayProject(), 
-                            appConfigData.getGatewaySourceGroup(),
-                            entityMappings,
-                            Collections.emptyList());
+            try (GenerationProfile.Span span = GenerationProfile.phase("persistence.xml")) {
+                Lookup.getDefault()
+                        .lookup(IPersistenceXMLGenerator.class)
+                        .generatePersistenceXML(
+                                task,
+                                appConfigData.getGatewayProject(),
+                                appConfigData.getGatewaySourceGroup(),
+                                entityMappings,
+                                Collections.emptyList());
+            }
         }
-        
-        if (appConfigData.getRepositoryTechContext()!= null) {
-            applicationGenerator.generate();
-            applicationGenerator.postGeneration();
+
+        if (appConfigData.getRepositoryTechContext() != null) {
+            try (GenerationProfile.Span span = GenerationProfile.phase("application.generate")) {
+                applicationGenerator.generate();
+            }
+            try (GenerationProfile.Span span = GenerationProfile.phase("application.postGeneration")) {
+                applicationGenerator.postGeneration();
+            }
         }
-        entityMappings.cleanRuntimeArtifact();
+    }
 
+    /**
+     * Single refresh of the target projects, to pick up the files written
+     * directly to disk during generation.
+     */
+    private static void refresh(ApplicationConfigData appConfigData) {
+        File[] projectDirs = Stream.of(appConfigData.getTargetProject(), appConfigData.getGatewayProject())
+                .filter(Objects::nonNull)
+                .map(Project::getProjectDirectory)
+                .map(FileUtil::toFile)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(File[]::new);
+        FileUtil.refreshFor(projectDirs);
     }
 
 }
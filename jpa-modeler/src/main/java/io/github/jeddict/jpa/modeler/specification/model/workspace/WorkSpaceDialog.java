@@ -70,7 +70,7 @@ public class WorkSpaceDialog extends GenericDialog {
         entityMappingPanel = (EntityMappingMemberPanel) classGenerationPanel;
         entityMappingPanel.init();
         entityMappingPanel.setClassCheckable(javaClass -> {
-            return this.workSpace.getItems().contains(new WorkSpaceItem(javaClass));
+            return this.workSpace.hasItem(javaClass);
                 });
         entityMappingPanel.setValue(entityMappings);
     }
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.spec;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Live view of a class list of {@link EntityMappings}, every modification
+ * through the view (including its iterators and sub lists) is reported to the
+ * {@link JavaClassIndex}, so the index is rebuilt on next lookup.
+ *
+ * @author Gaurav Gupta
+ */
+class ClassListView<E> extends AbstractList<E> implements RandomAccess {
+
+    private final List<E> list;
+    private final JavaClassIndex classIndex;
+
+    ClassListView(List<E> list, JavaClassIndex classIndex) {
+        this.list = list;
+        this.classIndex = classIndex;
+    }
+
+    /**
+     * @return the backing list of view or the list itself
+     */
+    static <E> List<E> unwrap(List<E> list) {
+        return list instanceof ClassListView ? ((ClassListView<E>) list).list : list;
+    }
+
+    @Override
+    public E get(int index) {
+        return list.get(index);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        E previous = list.set(index, element);
+        classIndex.modified();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        list.add(index, element);
+        modCount++;
+        classIndex.modified();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> elements) {
+        boolean modified = list.addAll(elements);
+        if (modified) {
+            modCount++;
+            classIndex.modified();
+        }
+        return modified;
+    }
+
+    @Override
+    public E remove(int index) {
+        E element = list.remove(index);
+        modCount++;
+        classIndex.modified();
+        return element;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        boolean modified = list.removeIf(filter);
+        if (modified) {
+            modCount++;
+            classIndex.modified();
+        }
+        return modified;
+    }
+
+    @Override
+    public void clear() {
+        if (!list.isEmpty()) {
+            list.clear();
+            modCount++;
+            classIndex.modified();
+        }
+    }
+
+}
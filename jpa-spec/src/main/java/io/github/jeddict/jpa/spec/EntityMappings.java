@@ -203,6 +203,12 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
     protected String version;
     @XmlTransient
     private SoftwareVersion previousVersion;
+    @XmlTransient
+    private List<ManagedClass> pendingRepairClasses;
+    @XmlTransient
+    private final JavaClassIndex classIndex = new JavaClassIndex(this);
+    @XmlTransient
+    private final InheritanceIndex inheritanceIndex = new InheritanceIndex(this, classIndex);
     @XmlAttribute(name = "dv")
     private String diagramVersion;
     @XmlElement(name = "diagram")
@@ -246,6 +252,8 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
     private Boolean generateStaticMetamodel = false;
     @XmlAttribute(name = "smpkg")
     private String staticMetamodelPackage;
+    @XmlAttribute(name = "shrd")
+    private Boolean shardedStorage;
 
     /**
      * JAXB support
@@ -298,6 +306,11 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
     private EntityMappings() {
     }
 
+    /**
+     * Resolves the superclass of classes, each superclass is looked up from
+     * the class id index and registered in the inheritance index by
+     * {@link JavaClass#addSuperclass}.
+     */
     public void initJavaInheritanceMapping() {
         List<JavaClass> javaClassList = this.getJavaClass();
         javaClassList.stream().filter((javaClass) -> (javaClass.getSuperclassId() != null)).forEach((javaClass) -> {
@@ -308,28 +321,41 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
 
     //UPDATE ELEMENT
     public boolean isClassExist(String _class) {
-        if (mappedSuperclass != null) {
-            if (mappedSuperclass.stream().anyMatch((e) -> (e.getClazz() != null && e.getClazz().equals(_class)))) {
-                return true;
-            }
-        }
-        if (entity != null) {
-            if (entity.stream().anyMatch((e) -> (e.getClazz() != null && e.getClazz().equals(_class)))) {
-                return true;
-            }
-        }
-        if (embeddable != null) {
-            if (embeddable.stream().anyMatch((e) -> (e.getClazz() != null && e.getClazz().equals(_class)))) {
-                return true;
-            }
-        }
-        if (getBeanClass() != null) {
-            if (getBeanClass().stream().anyMatch((e) -> (e.getClazz() != null && e.getClazz().equals(_class)))) {
-                return true;
-            }
+        if (_class == null) {
+            return false;
         }
+        return classIndex.containsName(_class);
+    }
+
+    /**
+     * Updates the class name index, invoked by {@link JavaClass#setClazz}.
+     *
+     * @param javaClass the renamed class
+     * @param previousName the class name before rename
+     */
+    public void updateClassIndex(JavaClass javaClass, String previousName) {
+        classIndex.renamed(javaClass, previousName);
+    }
 
-        return false;
+    /**
+     * Updates the class id index, invoked by {@link JavaClass#setId}.
+     *
+     * @param javaClass the class
+     * @param previousId the class id before change
+     */
+    public void updateClassIdIndex(JavaClass javaClass, String previousId) {
+        classIndex.idChanged(javaClass, previousId);
+    }
+
+    /**
+     * Updates the inheritance index, invoked on superclass change by
+     * {@link JavaClass#addSuperclass} and {@link JavaClass#removeSuperclass}.
+     *
+     * @param javaClass the subclass
+     * @param previousSuperclass the superclass before change
+     */
+    public void updateInheritanceIndex(JavaClass javaClass, JavaClass previousSuperclass) {
+        inheritanceIndex.superclassChanged(javaClass, previousSuperclass);
     }
 
     /**
@@ -678,25 +704,19 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (mappedSuperclass == null) {
             mappedSuperclass = new ArrayList<>();
         }
-        return this.mappedSuperclass;
+        return new ClassListView<>(this.mappedSuperclass, classIndex);
     }
 
     public MappedSuperclass getMappedSuperclass(String id) {
-        if (mappedSuperclass != null) {
-            for (MappedSuperclass mappedSuperclass_In : mappedSuperclass) {
-                if (id.equals(mappedSuperclass_In.getId())) {
-                    return mappedSuperclass_In;
-                }
-            }
+        if (isBlank(id)) {
+            return null;
         }
-        return null;
+        return classIndex.findById(id, MappedSuperclass.class);
     }
 
     public void setMappedSuperclass(List<MappedSuperclass> mappedSuperclass) {
-        if (this.mappedSuperclass == null) {
-            this.mappedSuperclass = new ArrayList<>();
-        }
-        this.mappedSuperclass = mappedSuperclass;
+        this.mappedSuperclass = ClassListView.unwrap(mappedSuperclass);
+        classIndex.modified();
     }
 
     /**
@@ -725,7 +745,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (entity == null) {
             entity = new ArrayList<>();
         }
-        return this.entity;
+        return new ClassListView<>(this.entity, classIndex);
     }
 
     public Stream<String> getFQEntity() {
@@ -747,10 +767,8 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
     }
 
     public void setEntity(List<Entity> entity) {
-        if (this.entity == null) {
-            this.entity = new ArrayList<>();
-        }
-        this.entity = entity;
+        this.entity = ClassListView.unwrap(entity);
+        classIndex.modified();
     }
 
     /**
@@ -779,14 +797,12 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (embeddable == null) {
             embeddable = new ArrayList<>();
         }
-        return this.embeddable;
+        return new ClassListView<>(this.embeddable, classIndex);
     }
 
     public void setEmbeddable(List<Embeddable> embeddable) {
-        if (this.embeddable == null) {
-            this.embeddable = new ArrayList<>();
-        }
-        this.embeddable = embeddable;
+        this.embeddable = ClassListView.unwrap(embeddable);
+        classIndex.modified();
     }
 
     /**
@@ -796,17 +812,15 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (this.beanClass == null) {
             this.beanClass = new ArrayList<>();
         }
-        return beanClass;
+        return new ClassListView<>(this.beanClass, classIndex);
     }
 
     /**
      * @param beanClass the beanClass to set
      */
     public void setBeanClass(List<BeanClass> beanClass) {
-        if (this.beanClass == null) {
-            this.beanClass = new ArrayList<>();
-        }
-        this.beanClass = beanClass;
+        this.beanClass = ClassListView.unwrap(beanClass);
+        classIndex.modified();
     }
 
     /**
@@ -934,7 +948,9 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
 
     public void removeEntity(Entity entity_In) {
         if (entity != null) {
-            this.entity.remove(entity_In);
+            if (this.entity.remove(entity_In)) {
+                classIndex.removed(entity_In);
+            }
             entity_In.setRootElement(null);
 
             if (!this.isRootWorkSpace()) {
@@ -959,6 +975,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
             entity = new ArrayList<>();
         }
         this.entity.add(entity_In);
+        classIndex.added(entity_In);
         entity_In.setRootElement(this);
     }
 
@@ -966,14 +983,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (StringUtils.isBlank(entityName)) {
             return Optional.empty();
         }
-        if (entity != null) {
-            for (Entity entity_In : entity) {
-                if (entityName.equals(entity_In.getClazz())) {
-                    return Optional.of(entity_In);
-                }
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(classIndex.findByName(entityName, Entity.class));
     }
 
     public Optional<? extends IdentifiableClass> findIdentifiableClass(String className) {
@@ -992,48 +1002,28 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (isBlank(id)) {
             return null;
         }
-        if (entity != null) {
-            for (Entity entity_In : entity) {
-                if (id.equals(entity_In.getId())) {
-                    return entity_In;
-                }
-            }
-        }
-        return null;
+        return classIndex.findById(id, Entity.class);
     }
 
     public Embeddable getEmbeddable(String id) {
         if (isBlank(id)) {
             return null;
         }
-        if (embeddable != null) {
-            for (Embeddable embeddable_In : embeddable) {
-                if (id.equals(embeddable_In.getId())) {
-                    return embeddable_In;
-                }
-            }
-        }
-        return null;
+        return classIndex.findById(id, Embeddable.class);
     }
 
     public List<Entity> findAllEntity(String entityName) {
         if (isBlank(entityName)) {
             return null;
         }
-        List<Entity> entities = new ArrayList<>();
-        if (entity != null) {
-            for (Entity entity_In : entity) {
-                if (entityName.equals(entity_In.getClazz())) {
-                    entities.add(entity_In);
-                }
-            }
-        }
-        return entities;
+        return classIndex.findAllByName(entityName, Entity.class);
     }
 
     public void removeMappedSuperclass(MappedSuperclass mappedSuperclass_In) {
         if (mappedSuperclass != null) {
-            this.mappedSuperclass.remove(mappedSuperclass_In);
+            if (this.mappedSuperclass.remove(mappedSuperclass_In)) {
+                classIndex.removed(mappedSuperclass_In);
+            }
             mappedSuperclass_In.setRootElement(null);
 
             if (!this.isRootWorkSpace()) {
@@ -1051,6 +1041,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
             mappedSuperclass = new ArrayList<>();
         }
         this.mappedSuperclass.add(mappedSuperclass_In);
+        classIndex.added(mappedSuperclass_In);
         mappedSuperclass_In.setRootElement(this);
     }
 
@@ -1058,19 +1049,14 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (isBlank(mappedSuperclassName)) {
             return Optional.empty();
         }
-        if (mappedSuperclass != null) {
-            for (MappedSuperclass mappedSuperclass_In : mappedSuperclass) {
-                if (mappedSuperclassName.equals(mappedSuperclass_In.getClazz())) {
-                    return Optional.of(mappedSuperclass_In);
-                }
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(classIndex.findByName(mappedSuperclassName, MappedSuperclass.class));
     }
 
     public void removeEmbeddable(Embeddable embeddable_In) {
         if (embeddable != null) {
-            this.embeddable.remove(embeddable_In);
+            if (this.embeddable.remove(embeddable_In)) {
+                classIndex.removed(embeddable_In);
+            }
             embeddable_In.setRootElement(null);
 
             if (!this.isRootWorkSpace()) {
@@ -1096,6 +1082,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
             embeddable = new ArrayList<>();
         }
         this.embeddable.add(embeddable_In);
+        classIndex.added(embeddable_In);
         embeddable_In.setRootElement(this);
     }
 
@@ -1103,28 +1090,24 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (isBlank(embeddableName)) {
             return Optional.empty();
         }
-        if (embeddable != null) {
-            for (Embeddable embeddable_In : embeddable) {
-                if (embeddableName.equals(embeddable_In.getClazz())) {
-                    return Optional.of(embeddable_In);
-                }
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(classIndex.findByName(embeddableName, Embeddable.class));
     }
 
     public void removeBeanClass(BeanClass class_In) {
-        if (getBeanClass() != null) {
-            this.getBeanClass().remove(class_In);
+        if (beanClass != null) {
+            if (this.beanClass.remove(class_In)) {
+                classIndex.removed(class_In);
+            }
             class_In.setRootElement(null);
         }
     }
 
     public void addBeanClass(BeanClass class_In) {
-        if (getBeanClass() == null) {
-            setBeanClass(new ArrayList<>());
+        if (beanClass == null) {
+            beanClass = new ArrayList<>();
         }
-        this.getBeanClass().add(class_In);
+        this.beanClass.add(class_In);
+        classIndex.added(class_In);
         class_In.setRootElement(this);
     }
 
@@ -1132,14 +1115,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (isBlank(className)) {
             return Optional.empty();
         }
-        if (getBeanClass() != null) {
-            for (BeanClass class_In : getBeanClass()) {
-                if (className.equals(class_In.getClazz())) {
-                    return Optional.of(class_In);
-                }
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(classIndex.findByName(className, BeanClass.class));
     }
 
     /**
@@ -1269,6 +1245,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         EntityMappings entityMappingsSpec = this;
 
         getNamedStoredProcedureQuery().forEach(this::manageStoredProcedureQuery);
+        InverseRelationIndex inverseRelationIndex = new InverseRelationIndex();
 
         // manageSiblingAttribute for MappedSuperClass and Embeddable is not required for (DBRE) DB REV ENG CASE
         for (ManagedClass<? extends IPersistenceAttributes> managedClass : entityMappingsSpec.getAllManagedClass()) {
@@ -1279,22 +1256,22 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
 
             for (ManyToMany manyToMany : new ArrayList<>(managedClass.getAttributes().getManyToMany())) {
                 if (manyToMany.getMappedBy() == null) {
-                    manageSiblingAttribute(managedClass, manyToMany);
+                    manageSiblingAttribute(managedClass, manyToMany, inverseRelationIndex);
                     manageMapKeyAttribute(managedClass, manyToMany);
                 }
             }
             for (OneToMany oneToMany : new ArrayList<>(managedClass.getAttributes().getOneToMany())) {
                 if (oneToMany.getMappedBy() == null) {
-                    manageSiblingAttribute(managedClass, oneToMany);
+                    manageSiblingAttribute(managedClass, oneToMany, inverseRelationIndex);
                     manageMapKeyAttribute(managedClass, oneToMany);
                 }
             }
             for (ManyToOne manyToOne : new ArrayList<>(managedClass.getAttributes().getManyToOne())) {
-                manageSiblingAttribute(managedClass, manyToOne);
+                manageSiblingAttribute(managedClass, manyToOne, inverseRelationIndex);
             }
             for (OneToOne oneToOne : new ArrayList<>(managedClass.getAttributes().getOneToOne())) {
                 if (oneToOne.getMappedBy() == null) {
-                    manageSiblingAttribute(managedClass, oneToOne);
+                    manageSiblingAttribute(managedClass, oneToOne, inverseRelationIndex);
                 }
             }
 
@@ -1371,20 +1348,13 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
     }
 
     // Issue Fix #5949 Start
-    private void manageSiblingAttribute(JavaClass sourceJavaClass, RelationAttribute relationAttributeOwner) {
+    private void manageSiblingAttribute(JavaClass sourceJavaClass, RelationAttribute relationAttributeOwner, InverseRelationIndex inverseRelationIndex) {
         Optional<Entity> targetEntityOptional = this.findEntity(relationAttributeOwner.getTargetEntity());
         if (targetEntityOptional.isPresent()) {
             Entity targetEntity = targetEntityOptional.get();
             if (relationAttributeOwner instanceof ManyToMany) {
                 ManyToMany sourceAttribute = (ManyToMany) relationAttributeOwner;
-                ManyToMany targetAttribute = null;
-                for (ManyToMany targetManyToMany : targetEntity.getAttributes().getManyToMany()) {
-                    if (sourceAttribute.getName().equals(targetManyToMany.getMappedBy())
-                            && sourceJavaClass.getClazz().equals(targetManyToMany.getTargetEntity())) {
-                        targetAttribute = targetManyToMany;
-                        break;
-                    }
-                }
+                ManyToMany targetAttribute = inverseRelationIndex.findManyToMany(targetEntity, sourceJavaClass.getClazz(), sourceAttribute.getName());
                 if (targetAttribute != null) {
                     targetAttribute.setConnectedEntity((Entity) sourceJavaClass);
                     targetAttribute.setConnectedAttribute(sourceAttribute);
@@ -1396,13 +1366,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
                 sourceAttribute.setConnectedEntity(targetEntity);
             } else if (relationAttributeOwner instanceof ManyToOne) {
                 ManyToOne sourceAttribute = (ManyToOne) relationAttributeOwner;
-                OneToMany targetAttribute = null;
-                for (OneToMany targetOneToMany : targetEntity.getAttributes().getOneToMany()) {
-                    if (sourceAttribute.getName().equals(targetOneToMany.getMappedBy()) && sourceJavaClass.getClazz().equals(targetOneToMany.getTargetEntity())) {
-                        targetAttribute = targetOneToMany;
-                        break;
-                    }
-                }
+                OneToMany targetAttribute = inverseRelationIndex.findOneToMany(targetEntity, sourceJavaClass.getClazz(), sourceAttribute.getName());
                 if (targetAttribute != null) {
                     targetAttribute.setConnectedEntity((Entity) sourceJavaClass);
                     targetAttribute.setConnectedAttribute(sourceAttribute);
@@ -1412,13 +1376,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
 
             } else if (relationAttributeOwner instanceof OneToOne) {
                 OneToOne sourceAttribute = (OneToOne) relationAttributeOwner;
-                OneToOne targetAttribute = null;
-                for (OneToOne targetOneToOne : targetEntity.getAttributes().getOneToOne()) {
-                    if (sourceAttribute.getName().equals(targetOneToOne.getMappedBy()) && sourceJavaClass.getClazz().equals(targetOneToOne.getTargetEntity())) {
-                        targetAttribute = targetOneToOne;
-                        break;
-                    }
-                }
+                OneToOne targetAttribute = inverseRelationIndex.findOneToOne(targetEntity, sourceJavaClass.getClazz(), sourceAttribute.getName());
                 if (targetAttribute != null) {
                     targetAttribute.setConnectedEntity((Entity) sourceJavaClass);
                     targetAttribute.setConnectedAttribute(sourceAttribute);
@@ -1441,8 +1399,49 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
      * @param manageSiblingAttribute
      */
     public void repairDefinition(InputOutput IO, boolean manageSiblingAttribute) {
+        pendingRepairClasses = null;
+        repairDefinition(IO, this.getAllManagedClass());
+    }
+
+    /**
+     * Repairs only the classes in scope (e.g current workspace items), rest of
+     * the classes are repaired on demand by
+     * {@link #repairPendingDefinition(InputOutput)}.
+     *
+     * @param IO
+     * @param scope
+     */
+    public void repairDefinition(InputOutput IO, Set<? extends JavaClass> scope) {
+        List<ManagedClass> managedClasses = new ArrayList<>();
+        pendingRepairClasses = new ArrayList<>();
+        for (ManagedClass managedClass : this.getAllManagedClass()) {
+            if (scope.contains(managedClass)) {
+                managedClasses.add(managedClass);
+            } else {
+                pendingRepairClasses.add(managedClass);
+            }
+        }
+        repairDefinition(IO, managedClasses);
+    }
 
-        for (ManagedClass<IPersistenceAttributes> managedClass : this.getAllManagedClass()) {
+    /**
+     * Repairs the classes skipped by
+     * {@link #repairDefinition(InputOutput, Set)}, required before the whole
+     * model is persisted or used for generation.
+     *
+     * @param IO
+     */
+    public void repairPendingDefinition(InputOutput IO) {
+        if (pendingRepairClasses != null) {
+            List<ManagedClass> managedClasses = pendingRepairClasses;
+            pendingRepairClasses = null;
+            repairDefinition(IO, managedClasses);
+        }
+    }
+
+    private void repairDefinition(InputOutput IO, List<ManagedClass> managedClasses) {
+        InverseRelationIndex inverseRelationIndex = new InverseRelationIndex();
+        for (ManagedClass<IPersistenceAttributes> managedClass : managedClasses) {
             for (RelationAttribute attribute : managedClass.getAttributes().getRelationAttributes()) {
                 //if no connected-entity-id exist
                 if (attribute.getConnectedEntity() == null) {
@@ -1463,9 +1462,11 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
                         }
                         //remove the connected attribute from its owning class
                         ((ManagedClass<IPersistenceAttributes>) attribute.getConnectedAttribute().getJavaClass()).getAttributes().removeRelationAttribute(attribute.getConnectedAttribute());
+                        inverseRelationIndex.remove(attribute.getConnectedAttribute());
                     }
                     //remove to self from owning class
                     managedClass.getAttributes().removeRelationAttribute(attribute);
+                    inverseRelationIndex.remove(attribute);
                     continue;
                 }
                 //if own is missing/found form both side
@@ -1488,7 +1489,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
                             IO.getErr().print(message.toString());
                         }
                         attribute.setOwner(true);
-                        manageSiblingAttribute(managedClass, attribute);
+                        manageSiblingAttribute(managedClass, attribute, inverseRelationIndex);
                     }
                 } else {
                     if (!attribute.isOwner()) {
@@ -1499,7 +1500,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
                             IO.getErr().print(message.toString());
                         }
                         attribute.setOwner(true);
-                        manageSiblingAttribute(managedClass, attribute);
+                        manageSiblingAttribute(managedClass, attribute, inverseRelationIndex);
                     }
                 }
             }
@@ -1537,12 +1538,7 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
         if (isBlank(classId)) {
             return null;
         }
-        for (JavaClass javaClass : getJavaClass()) {
-            if (StringUtils.equals(javaClass.getId(), classId)) {
-                return javaClass;
-            }
-        }
-        return null;
+        return classIndex.findById(classId, JavaClass.class);
     }
 
     public List<JavaClass> getAllJavaClass() {
@@ -1564,24 +1560,15 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
 
     public List<JavaClass> getSubClass(String classId) {
         List<JavaClass> javaClassList = new ArrayList<>(this.getEntity());
-        javaClassList.addAll(
-                this.getJavaClass()
-                        .stream()
-                        .filter(javaClass -> classId.equals(javaClass.getSuperclass().getId()))
-                        .collect(toList())
-        );
+        javaClassList.addAll(inheritanceIndex.getSubclasses(classId));
         return javaClassList;
     }
 
+    /**
+     * @return the subclasses of the complete hierarchy in depth first order
+     */
     public List<JavaClass> getAllSubClass(String classId) {
-        List<JavaClass> javaClassList = new ArrayList<>();
-        for (JavaClass javaClass : this.getJavaClass()) {
-            if (javaClass.getSuperclass() != null && classId.equals(javaClass.getSuperclass().getId())) {
-                javaClassList.add(javaClass);
-                javaClassList.addAll(this.getAllSubClass(javaClass.getId()));
-            }
-        }
-        return javaClassList;
+        return inheritanceIndex.getAllSubclasses(classId);
     }
 
     @Override
@@ -1697,6 +1684,20 @@ public class EntityMappings extends BaseElement implements IDefinitionElement, I
     public void setGenerateStaticMetamodel(Boolean generateStaticMetamodel) {
         this.generateStaticMetamodel = generateStaticMetamodel;
     }
+
+    /**
+     * @return true if classes are persisted as separate fragment files
+     */
+    public Boolean getShardedStorage() {
+        return shardedStorage;
+    }
+
+    /**
+     * @param shardedStorage the shardedStorage to set
+     */
+    public void setShardedStorage(Boolean shardedStorage) {
+        this.shardedStorage = shardedStorage;
+    }
     
     public List<ManagedClass> getAllManagedClass() {
         List<ManagedClass> managedClasses = new ArrayList<>();
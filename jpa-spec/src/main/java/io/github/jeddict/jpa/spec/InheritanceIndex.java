@@ -0,0 +1,138 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.spec;
+
+import io.github.jeddict.jpa.spec.extend.JavaClass;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Superclass to subclasses index of {@link EntityMappings} classes with the
+ * cached transitive closure.
+ *
+ * Index is built in one pass over the classes, maintained on superclass change
+ * by {@link JavaClass#addSuperclass} and {@link JavaClass#removeSuperclass} and
+ * rebuilt on any other change of the classes tracked by {@link JavaClassIndex}.
+ * The cached closure is dropped on every change.
+ *
+ * @author Gaurav Gupta
+ */
+class InheritanceIndex {
+
+    private final EntityMappings entityMappings;
+    private final JavaClassIndex classIndex;
+
+    private final Map<String, List<JavaClass>> subclasses = new HashMap<>();
+    private final Map<String, List<JavaClass>> allSubclasses = new HashMap<>();
+
+    private int indexedModificationCount;
+    private boolean indexed;
+
+    InheritanceIndex(EntityMappings entityMappings, JavaClassIndex classIndex) {
+        this.entityMappings = entityMappings;
+        this.classIndex = classIndex;
+    }
+
+    /**
+     * @return the direct subclasses
+     */
+    synchronized List<JavaClass> getSubclasses(String classId) {
+        refresh();
+        return new ArrayList<>(subclasses.getOrDefault(classId, Collections.emptyList()));
+    }
+
+    /**
+     * @return the subclasses of the complete hierarchy in depth first order
+     */
+    synchronized List<JavaClass> getAllSubclasses(String classId) {
+        refresh();
+        List<JavaClass> classes = allSubclasses.get(classId);
+        if (classes == null) {
+            classes = new ArrayList<>();
+            collectSubclasses(classId, classes, Collections.newSetFromMap(new IdentityHashMap<>()));
+            allSubclasses.put(classId, classes);
+        }
+        return new ArrayList<>(classes);
+    }
+
+    /**
+     * Invoked after the superclass of class is changed.
+     */
+    synchronized void superclassChanged(JavaClass javaClass, JavaClass previousSuperclass) {
+        if (!isCurrent()) {
+            return;
+        }
+        allSubclasses.clear();
+        if (previousSuperclass != null) {
+            List<JavaClass> classes = subclasses.get(previousSuperclass.getId());
+            if (classes != null) {
+                classes.removeIf(c -> c == javaClass);
+                if (classes.isEmpty()) {
+                    subclasses.remove(previousSuperclass.getId());
+                }
+            }
+        }
+        put(javaClass);
+    }
+
+    private void collectSubclasses(String classId, List<JavaClass> classes, Set<JavaClass> visited) {
+        for (JavaClass subclass : subclasses.getOrDefault(classId, Collections.emptyList())) {
+            if (visited.add(subclass)) { // guard against cyclic hierarchy
+                classes.add(subclass);
+                List<JavaClass> cachedClasses = allSubclasses.get(subclass.getId());
+                if (cachedClasses != null) {
+                    for (JavaClass cachedClass : cachedClasses) {
+                        if (visited.add(cachedClass)) {
+                            classes.add(cachedClass);
+                        }
+                    }
+                } else {
+                    collectSubclasses(subclass.getId(), classes, visited);
+                }
+            }
+        }
+    }
+
+    private boolean isCurrent() {
+        return indexed && indexedModificationCount == classIndex.getModificationCount();
+    }
+
+    private void refresh() {
+        if (isCurrent()) {
+            return;
+        }
+        subclasses.clear();
+        allSubclasses.clear();
+        for (JavaClass javaClass : entityMappings.getJavaClass()) {
+            put(javaClass);
+        }
+        indexedModificationCount = classIndex.getModificationCount();
+        indexed = true;
+    }
+
+    private void put(JavaClass javaClass) {
+        JavaClass superclass = javaClass.getSuperclass();
+        if (superclass != null && superclass.getId() != null) {
+            subclasses.computeIfAbsent(superclass.getId(), key -> new ArrayList<>()).add(javaClass);
+        }
+    }
+
+}
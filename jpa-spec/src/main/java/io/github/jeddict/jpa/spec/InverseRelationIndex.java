@@ -0,0 +1,147 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.spec;
+
+import io.github.jeddict.jpa.spec.extend.RelationAttribute;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * One pass index of the inverse (mappedBy) side of relations, keyed by the
+ * entity declaring the attribute, the attribute type, the target entity and
+ * the mappedBy attribute name.
+ *
+ * Index is a snapshot built for a single wiring pass e.g
+ * {@link EntityMappings#manageRefId()}, found attribute is verified against
+ * its current mappedBy and target entity before being returned. Entities are
+ * indexed lazily on first lookup, so a pass over a subset of classes (e.g
+ * current workspace) only indexes the entities its relations target.
+ *
+ * @author Gaurav Gupta
+ */
+class InverseRelationIndex {
+
+    private final Map<Key, RelationAttribute> inverseAttributes = new HashMap<>();
+    private final Map<RelationAttribute, Key> keys = new IdentityHashMap<>();
+    private final Set<Entity> indexedEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private void index(Entity entity) {
+        if (indexedEntities.add(entity)) {
+            index(entity, ManyToMany.class, entity.getAttributes().getManyToMany(), ManyToMany::getMappedBy);
+            index(entity, OneToMany.class, entity.getAttributes().getOneToMany(), OneToMany::getMappedBy);
+            index(entity, OneToOne.class, entity.getAttributes().getOneToOne(), OneToOne::getMappedBy);
+        }
+    }
+
+    private <T extends RelationAttribute> void index(Entity entity, Class<T> type, List<T> attributes, Function<T, String> mappedBy) {
+        for (T attribute : attributes) {
+            String mappedByName = mappedBy.apply(attribute);
+            if (mappedByName != null) {
+                Key key = new Key(entity, type, attribute.getTargetEntity(), mappedByName);
+                if (inverseAttributes.putIfAbsent(key, attribute) == null) {
+                    keys.put(attribute, key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invoked if attribute is removed from its class during the pass.
+     */
+    void remove(RelationAttribute attribute) {
+        Key key = keys.remove(attribute);
+        if (key != null) {
+            inverseAttributes.remove(key);
+        }
+    }
+
+    /**
+     * @param entity the entity declaring the inverse attribute
+     * @param targetEntity the owner class name
+     * @param mappedBy the owner attribute name
+     * @return the inverse attribute or null if not found
+     */
+    ManyToMany findManyToMany(Entity entity, String targetEntity, String mappedBy) {
+        ManyToMany attribute = find(entity, ManyToMany.class, targetEntity, mappedBy);
+        return attribute != null && Objects.equals(mappedBy, attribute.getMappedBy()) ? attribute : null;
+    }
+
+    OneToMany findOneToMany(Entity entity, String targetEntity, String mappedBy) {
+        OneToMany attribute = find(entity, OneToMany.class, targetEntity, mappedBy);
+        return attribute != null && Objects.equals(mappedBy, attribute.getMappedBy()) ? attribute : null;
+    }
+
+    OneToOne findOneToOne(Entity entity, String targetEntity, String mappedBy) {
+        OneToOne attribute = find(entity, OneToOne.class, targetEntity, mappedBy);
+        return attribute != null && Objects.equals(mappedBy, attribute.getMappedBy()) ? attribute : null;
+    }
+
+    private <T extends RelationAttribute> T find(Entity entity, Class<T> type, String targetEntity, String mappedBy) {
+        index(entity);
+        RelationAttribute attribute = inverseAttributes.get(new Key(entity, type, targetEntity, mappedBy));
+        if (attribute != null && Objects.equals(targetEntity, attribute.getTargetEntity())) {
+            return type.cast(attribute);
+        }
+        return null;
+    }
+
+    private static class Key {
+
+        private final Entity entity;
+        private final Class<?> type;
+        private final String targetEntity;
+        private final String mappedBy;
+
+        private Key(Entity entity, Class<?> type, String targetEntity, String mappedBy) {
+            this.entity = entity;
+            this.type = type;
+            this.targetEntity = targetEntity;
+            this.mappedBy = mappedBy;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 37 * hash + System.identityHashCode(entity);
+            hash = 37 * hash + type.hashCode();
+            hash = 37 * hash + Objects.hashCode(targetEntity);
+            hash = 37 * hash + Objects.hashCode(mappedBy);
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.entity == other.entity
+                    && this.type == other.type
+                    && Objects.equals(this.targetEntity, other.targetEntity)
+                    && Objects.equals(this.mappedBy, other.mappedBy);
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.spec;
+
+import io.github.jeddict.jpa.spec.bean.BeanClass;
+import io.github.jeddict.jpa.spec.extend.JavaClass;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Id and class name index of the entity, mapped-superclass, embeddable and
+ * bean classes of {@link EntityMappings}.
+ *
+ * Ids are indexed per class kind, so the classes of different kinds may share
+ * an id. Index is maintained by the add/remove/rename/id-change hooks of
+ * EntityMappings and JavaClass. Any other modification of the class lists
+ * (through the {@link ClassListView views} returned by EntityMappings or by
+ * replacing the lists) increments the modification count and the index is
+ * rebuilt lazily on next lookup.
+ *
+ * @author Gaurav Gupta
+ */
+class JavaClassIndex {
+
+    private static final int KINDS = 4;
+
+    private final EntityMappings entityMappings;
+
+    private final List<Map<String, JavaClass>> classById = new ArrayList<>(KINDS);
+    private final Map<String, List<JavaClass>> classByName = new HashMap<>();
+
+    private int modificationCount;
+    private int indexedModificationCount;
+    private boolean indexed;
+
+    JavaClassIndex(EntityMappings entityMappings) {
+        this.entityMappings = entityMappings;
+        for (int kind = 0; kind < KINDS; kind++) {
+            classById.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * @return the first class of type with the id, in the lookup order of
+     * {@link EntityMappings#getJavaClass()}
+     */
+    synchronized <T extends JavaClass> T findById(String id, Class<T> type) {
+        refresh();
+        for (Map<String, JavaClass> classes : classById) {
+            JavaClass javaClass = classes.get(id);
+            if (type.isInstance(javaClass)) {
+                return type.cast(javaClass);
+            }
+        }
+        return null;
+    }
+
+    synchronized <T extends JavaClass> T findByName(String name, Class<T> type) {
+        refresh();
+        for (JavaClass javaClass : classByName.getOrDefault(name, Collections.emptyList())) {
+            if (type.isInstance(javaClass)) {
+                return type.cast(javaClass);
+            }
+        }
+        return null;
+    }
+
+    synchronized <T extends JavaClass> List<T> findAllByName(String name, Class<T> type) {
+        refresh();
+        List<T> classes = new ArrayList<>();
+        for (JavaClass javaClass : classByName.getOrDefault(name, Collections.emptyList())) {
+            if (type.isInstance(javaClass)) {
+                classes.add(type.cast(javaClass));
+            }
+        }
+        return classes;
+    }
+
+    synchronized boolean containsName(String name) {
+        refresh();
+        return classByName.containsKey(name);
+    }
+
+    /**
+     * @return the counter incremented on every change of the class lists or
+     * class ids, used by the derived indexes to detect the staleness.
+     */
+    synchronized int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Invoked after the class lists are modified without the hooks.
+     */
+    synchronized void modified() {
+        modificationCount++;
+    }
+
+    /**
+     * Invoked after the class is added to the list.
+     */
+    synchronized void added(JavaClass javaClass) {
+        boolean current = isCurrent();
+        modificationCount++;
+        if (current) {
+            put(getKind(javaClass), javaClass);
+            indexedModificationCount = modificationCount;
+        }
+    }
+
+    /**
+     * Invoked after the class is removed from the list.
+     */
+    synchronized void removed(JavaClass javaClass) {
+        boolean current = isCurrent();
+        modificationCount++;
+        if (current) {
+            removeId(javaClass, javaClass.getId());
+            removeName(javaClass, javaClass.getClazz());
+            indexedModificationCount = modificationCount;
+        }
+    }
+
+    /**
+     * Invoked after the class name is changed.
+     */
+    synchronized void renamed(JavaClass javaClass, String previousName) {
+        if (isCurrent() && removeName(javaClass, previousName)) {
+            putName(javaClass);
+        }
+    }
+
+    /**
+     * Invoked after the class id is changed.
+     */
+    synchronized void idChanged(JavaClass javaClass, String previousId) {
+        boolean current = isCurrent();
+        modificationCount++;
+        // class not indexed by previous id (e.g clone out of model) is resolved by rebuild
+        if (current && removeId(javaClass, previousId)) {
+            putId(getKind(javaClass), javaClass);
+            indexedModificationCount = modificationCount;
+        }
+    }
+
+    private boolean isCurrent() {
+        return indexed && indexedModificationCount == modificationCount;
+    }
+
+    private void refresh() {
+        if (!isCurrent()) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        classById.forEach(Map::clear);
+        classByName.clear();
+        List<?>[] lists = getLists();
+        for (int kind = 0; kind < KINDS; kind++) {
+            for (Object javaClass : lists[kind]) {
+                put(kind, (JavaClass) javaClass);
+            }
+        }
+        indexedModificationCount = modificationCount;
+        indexed = true;
+    }
+
+    /**
+     * @return the class lists in the lookup order of
+     * {@link EntityMappings#getJavaClass()}
+     */
+    private List<?>[] getLists() {
+        return new List<?>[]{
+            entityMappings.getEntity(),
+            entityMappings.getMappedSuperclass(),
+            entityMappings.getEmbeddable(),
+            entityMappings.getBeanClass()
+        };
+    }
+
+    /**
+     * @return the index of class list of class in {@link #getLists()}
+     */
+    private static int getKind(JavaClass javaClass) {
+        if (javaClass instanceof Entity) {
+            return 0;
+        } else if (javaClass instanceof MappedSuperclass) {
+            return 1;
+        } else if (javaClass instanceof Embeddable) {
+            return 2;
+        } else if (javaClass instanceof BeanClass) {
+            return 3;
+        }
+        throw new IllegalArgumentException("Unknown class kind : " + javaClass.getClass());
+    }
+
+    private void put(int kind, JavaClass javaClass) {
+        putId(kind, javaClass);
+        putName(javaClass);
+    }
+
+    private void putId(int kind, JavaClass javaClass) {
+        if (javaClass.getId() != null) {
+            classById.get(kind).putIfAbsent(javaClass.getId(), javaClass);
+        }
+    }
+
+    /**
+     * Removes the id of class and indexes the next class of same kind sharing
+     * the id, if any.
+     */
+    private boolean removeId(JavaClass javaClass, String id) {
+        int kind = getKind(javaClass);
+        if (id == null || !classById.get(kind).remove(id, javaClass)) {
+            return false;
+        }
+        for (Object other : getLists()[kind]) {
+            if (other != javaClass && id.equals(((JavaClass) other).getId())) {
+                classById.get(kind).put(id, (JavaClass) other);
+                break;
+            }
+        }
+        return true;
+    }
+
+    private void putName(JavaClass javaClass) {
+        if (javaClass.getClazz() != null) {
+            classByName.computeIfAbsent(javaClass.getClazz(), key -> new ArrayList<>(1)).add(javaClass);
+        }
+    }
+
+    private boolean removeName(JavaClass javaClass, String name) {
+        List<JavaClass> classes = classByName.get(name);
+        if (classes == null) {
+            return false;
+        }
+        boolean removed = classes.removeIf(c -> c == javaClass);
+        if (classes.isEmpty()) {
+            classByName.remove(name);
+        }
+        return removed;
+    }
+
+}
@@ -10,6 +10,7 @@ import io.github.jeddict.db.accessor.EmbeddedIdSpecAccessor;
 import io.github.jeddict.db.accessor.IdSpecAccessor;
 import io.github.jeddict.db.accessor.VersionSpecAccessor;
 import io.github.jeddict.jpa.spec.extend.Attribute;
+import io.github.jeddict.jpa.spec.extend.CompositeAttributeList;
 import io.github.jeddict.jpa.spec.extend.IPrimaryKeyAttributes;
 import io.github.jeddict.jpa.spec.extend.JavaClass;
 import io.github.jeddict.jpa.spec.extend.PersistenceAttributes;
@@ -91,6 +92,9 @@ public class PrimaryKeyAttributes extends PersistenceAttributes<IdentifiableClas
     protected EmbeddedId embeddedId;
     protected List<Version> version;
 
+    private final transient CompositeAttributeList<Attribute> nonRelationAttributes
+            = new CompositeAttributeList<>(this::getModificationCount, PersistenceAttributes::isNonRelationAttribute, this::getId, this::getBasic, this::getElementCollection, this::getVersion);
+
     @Override
     public void load(ClassExplorer clazz) {
         Collection<MemberExplorer> members = clazz.getMembers();
@@ -273,7 +277,7 @@ public class PrimaryKeyAttributes extends PersistenceAttributes<IdentifiableClas
         if (id == null) {
             id = new ArrayList<>();
         }
-        return this.id;
+        return view(this.id);
     }
 
     @Override
@@ -353,7 +357,7 @@ public class PrimaryKeyAttributes extends PersistenceAttributes<IdentifiableClas
         if (version == null) {
             version = new ArrayList<>();
         }
-        return this.version;
+        return view(this.version);
     }
 
     @Override
@@ -392,15 +396,13 @@ public class PrimaryKeyAttributes extends PersistenceAttributes<IdentifiableClas
     }
 
     @Override
-    public List<Attribute> getAllAttribute(boolean includeParentClassAttibute) {
-        List<Attribute> attributes = new ArrayList<>();
+    protected void collectAttributes(List<Attribute> attributes) {
         if (this.getEmbeddedId() != null) {
             attributes.add(this.getEmbeddedId());
         }
         attributes.addAll(this.getId());
-        attributes.addAll(super.getAllAttribute(includeParentClassAttibute));
+        super.collectAttributes(attributes);
         attributes.addAll(this.getVersion());
-        return attributes;
     }
 
     @Override
@@ -446,11 +448,7 @@ public class PrimaryKeyAttributes extends PersistenceAttributes<IdentifiableClas
 
     @Override
     public List<Attribute> getNonRelationAttributes() {
-        List<Attribute> attributes = new ArrayList<>(this.getId());
-        attributes.addAll(this.getBasic());
-        attributes.addAll(this.getElementCollection().stream().filter(ec -> ec.getConnectedClass() == null).collect(toList()));
-        attributes.addAll(this.getVersion());
-        return attributes;
+        return nonRelationAttributes.get();
     }
 
     public boolean hasCompositePrimaryKey() {
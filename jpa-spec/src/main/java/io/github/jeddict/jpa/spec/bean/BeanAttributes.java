@@ -30,6 +30,7 @@ import io.github.jeddict.jpa.spec.Transient;
 import io.github.jeddict.jpa.spec.extend.Attribute;
 import io.github.jeddict.jpa.spec.extend.Attributes;
 import io.github.jeddict.jpa.spec.extend.BaseAttribute;
+import io.github.jeddict.jpa.spec.extend.CompositeAttributeList;
 import io.github.jeddict.jpa.spec.extend.JavaClass;
 import io.github.jeddict.source.ClassExplorer;
 import io.github.jeddict.source.MemberExplorer;
@@ -64,6 +65,12 @@ public class BeanAttributes extends Attributes<BeanClass> {
     @XmlElement(name = "many-to-many-assoc")
     private List<ManyToManyAssociation> manyToMany;
 
+    private final transient CompositeAttributeList<AssociationAttribute> associationAttributes
+            = new CompositeAttributeList<>(this::getModificationCount, this::getOneToOne, this::getManyToOne, this::getOneToMany, this::getManyToMany);
+
+    private final transient CompositeAttributeList<Attribute> nonAssociationAttributes
+            = new CompositeAttributeList<>(this::getModificationCount, this::getBasic, this::getElementCollection, this::getTransient);
+
     @Override
     public void load(ClassExplorer clazz) {
         Collection<MemberExplorer> members = clazz.getMembers();
@@ -154,24 +161,24 @@ public class BeanAttributes extends Attributes<BeanClass> {
     }
 
     @Override
-    public List<Attribute> getAllAttribute(boolean includeParentClassAttibute) {
-        List<Attribute> attributes = super.getAllAttribute(includeParentClassAttibute);
+    protected void collectAttributes(List<Attribute> attributes) {
+        super.collectAttributes(attributes);
         attributes.addAll(this.getBasic());
         attributes.addAll(this.getElementCollection());
         attributes.addAll(this.getAssociationAttributes());
         attributes.addAll(this.getTransient());
-        return attributes;
     }
 
     public List<BeanAttribute> getBasic() {
         if (this.basic == null) {
             this.basic = new ArrayList<>();
         }
-        return this.basic;
+        return view(this.basic);
     }
 
     public void setBasic(List<BeanAttribute> attributes) {
-        this.basic = attributes;
+        this.basic = unwrap(attributes);
+        modified();
     }
 
     public Optional<BeanAttribute> getBasic(String id) {
@@ -198,11 +205,12 @@ public class BeanAttributes extends Attributes<BeanClass> {
         if (this.elementCollection == null) {
             this.elementCollection = new ArrayList<>();
         }
-        return elementCollection;
+        return view(this.elementCollection);
     }
 
     public void setElementCollection(List<BeanCollectionAttribute> attributes) {
-        this.elementCollection = attributes;
+        this.elementCollection = unwrap(attributes);
+        modified();
     }
 
     public Optional<BeanCollectionAttribute> getElementCollection(String id) {
@@ -229,11 +237,12 @@ public class BeanAttributes extends Attributes<BeanClass> {
         if (this._transient == null) {
             this._transient = new ArrayList<>();
         }
-        return _transient;
+        return view(this._transient);
     }
 
     public void setTransient(List<Transient> attributes) {
-        this._transient = attributes;
+        this._transient = unwrap(attributes);
+        modified();
     }
 
     public Optional<Transient> getTransient(String id) {
@@ -260,11 +269,12 @@ public class BeanAttributes extends Attributes<BeanClass> {
         if (manyToOne == null) {
             this.manyToOne = new ArrayList<>();
         }
-        return this.manyToOne;
+        return view(this.manyToOne);
     }
 
     public void setManyToOne(List<ManyToOneAssociation> manyToOne) {
-        this.manyToOne = manyToOne;
+        this.manyToOne = unwrap(manyToOne);
+        modified();
     }
 
     public Optional<ManyToOneAssociation> getManyToOne(String id) {
@@ -291,11 +301,12 @@ public class BeanAttributes extends Attributes<BeanClass> {
         if (oneToMany == null) {
             this.oneToMany = new ArrayList<>();
         }
-        return this.oneToMany;
+        return view(this.oneToMany);
     }
 
     public void setOneToMany(List<OneToManyAssociation> oneToMany) {
-        this.oneToMany = oneToMany;
+        this.oneToMany = unwrap(oneToMany);
+        modified();
     }
 
     public Optional<OneToManyAssociation> getOneToMany(String id) {
@@ -322,11 +333,12 @@ public class BeanAttributes extends Attributes<BeanClass> {
         if (oneToOne == null) {
             this.oneToOne = new ArrayList<>();
         }
-        return this.oneToOne;
+        return view(this.oneToOne);
     }
 
     public void setOneToOne(List<OneToOneAssociation> oneToOne) {
-        this.oneToOne = oneToOne;
+        this.oneToOne = unwrap(oneToOne);
+        modified();
     }
 
     public Optional<OneToOneAssociation> getOneToOne(String id) {
@@ -353,11 +365,12 @@ public class BeanAttributes extends Attributes<BeanClass> {
         if (manyToMany == null) {
             this.manyToMany = new ArrayList<>();
         }
-        return this.manyToMany;
+        return view(this.manyToMany);
     }
 
     public void setManyToMany(List<ManyToManyAssociation> manyToMany) {
-        this.manyToMany = manyToMany;
+        this.manyToMany = unwrap(manyToMany);
+        modified();
     }
 
     public Optional<ManyToManyAssociation> getManyToMany(String id) {
@@ -381,11 +394,7 @@ public class BeanAttributes extends Attributes<BeanClass> {
     }
 
     public List<AssociationAttribute> getAssociationAttributes() {
-        List<AssociationAttribute> associationAttributes = new ArrayList<>(this.getOneToOne());
-        associationAttributes.addAll(this.getManyToOne());
-        associationAttributes.addAll(this.getOneToMany());
-        associationAttributes.addAll(this.getManyToMany());
-        return associationAttributes;
+        return associationAttributes.get();
     }
 
     @Override
@@ -452,10 +461,7 @@ public class BeanAttributes extends Attributes<BeanClass> {
     }
 
     public List<Attribute> getNonAssociationAttributes() {
-        List<Attribute> attributes = new ArrayList<>(this.getBasic());
-        attributes.addAll(this.getElementCollection());
-        attributes.addAll(this.getTransient());
-        return attributes;
+        return nonAssociationAttributes.get();
     }
 
     public void removeNonOwnerAttribute(Set<JavaClass> filterJavaClasses) {
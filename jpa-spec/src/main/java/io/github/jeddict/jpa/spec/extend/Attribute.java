@@ -564,6 +564,16 @@ public abstract class Attribute extends FlowPin implements JaxbVariableTypeHandl
         this.attributes = attributes;
     }
 
+    /**
+     * Notifies the owner attributes after a property used to filter its
+     * cached attribute lists is changed.
+     */
+    protected void notifyAttributes() {
+        if (attributes != null) {
+            attributes.notifyListeners(this, Attributes.MODIFY_ATTRIBUTE_PROPERTY, null, null);
+        }
+    }
+
     void afterUnmarshal(Unmarshaller u, Object parent) {
         if (parent instanceof IAttributes) {
             setAttributes((IAttributes) parent);//this
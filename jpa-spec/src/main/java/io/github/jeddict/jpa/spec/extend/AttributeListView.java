@@ -0,0 +1,110 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.spec.extend;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Live view of an attribute list of {@link Attributes}, every modification
+ * through the view (including its iterators and sub lists) increments the
+ * modification count of attributes, so the cached attribute lists are rebuilt
+ * on next access.
+ *
+ * @author Gaurav Gupta
+ */
+class AttributeListView<E> extends AbstractList<E> implements RandomAccess {
+
+    private final List<E> list;
+    private final Attributes<?> attributes;
+
+    AttributeListView(List<E> list, Attributes<?> attributes) {
+        this.list = list;
+        this.attributes = attributes;
+    }
+
+    /**
+     * @return the backing list of view or the list itself
+     */
+    static <E> List<E> unwrap(List<E> list) {
+        return list instanceof AttributeListView ? ((AttributeListView<E>) list).list : list;
+    }
+
+    @Override
+    public E get(int index) {
+        return list.get(index);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        E previous = list.set(index, element);
+        attributes.modified();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        list.add(index, element);
+        modCount++;
+        attributes.modified();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> elements) {
+        boolean modified = list.addAll(elements);
+        if (modified) {
+            modCount++;
+            attributes.modified();
+        }
+        return modified;
+    }
+
+    @Override
+    public E remove(int index) {
+        E element = list.remove(index);
+        modCount++;
+        attributes.modified();
+        return element;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        boolean modified = list.removeIf(filter);
+        if (modified) {
+            modCount++;
+            attributes.modified();
+        }
+        return modified;
+    }
+
+    @Override
+    public void clear() {
+        if (!list.isEmpty()) {
+            list.clear();
+            modCount++;
+            attributes.modified();
+        }
+    }
+
+}
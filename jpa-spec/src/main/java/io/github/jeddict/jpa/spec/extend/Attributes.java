@@ -18,6 +18,7 @@ package io.github.jeddict.jpa.spec.extend;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,8 +44,18 @@ public abstract class Attributes<T extends JavaClass> implements IAttributes {
     
     private final transient List<PropertyChangeListener> listeners = new ArrayList<>();
 
+    private transient int modificationCount;
+
+    private transient List<Attribute> allAttributes;
+    private transient int allAttributesModificationCount;
+
     protected final static String ADD_ATTRIBUTE_PROPERTY = "addAttribute";
     protected final static String REMOVE_ATTRIBUTE_PROPERTY = "removeAttribute";
+    /**
+     * Notified by attribute on change of property used to filter the cached
+     * attribute lists (e.g primary key flag of relation).
+     */
+    final static String MODIFY_ATTRIBUTE_PROPERTY = "modifyAttribute";
 
     protected <T extends Attribute> Optional<T> findById(List<T> attributes, String id) {
         if (attributes != null) {
@@ -91,7 +102,7 @@ public abstract class Attributes<T extends JavaClass> implements IAttributes {
     
     @Override
     public List<Attribute> getAllSortedAttribute(boolean includeParentClassAttibute) {
-        List<Attribute> attributes = getAllAttribute(includeParentClassAttibute);
+        List<Attribute> attributes = new ArrayList<>(getAllAttribute(includeParentClassAttibute));
         attributes.sort(new AttributeLocationComparator());
         return attributes;
     }
@@ -103,11 +114,39 @@ public abstract class Attributes<T extends JavaClass> implements IAttributes {
     
     @Override
     public List<Attribute> getAllAttribute(boolean includeParentClassAttibute) {
-        List<Attribute> attributes = new ArrayList<>();
-        if(includeParentClassAttibute && this.getJavaClass().getSuperclass()!=null){
-            attributes.addAll(this.getJavaClass().getSuperclass().getAttributes().getAllAttribute(true));
+        List<Attribute> classAttributes = getClassAttributes();
+        if (includeParentClassAttibute && this.getJavaClass().getSuperclass() != null) {
+            List<Attribute> parentAttributes = this.getJavaClass().getSuperclass().getAttributes().getAllAttribute(true);
+            List<Attribute> attributes = new ArrayList<>(parentAttributes.size() + classAttributes.size());
+            attributes.addAll(parentAttributes);
+            attributes.addAll(classAttributes);
+            return Collections.unmodifiableList(attributes);
         }
-        return attributes;
+        return classAttributes;
+    }
+
+    /**
+     * @return the cached attributes of class, rebuilt only if the modification
+     * count is changed.
+     */
+    private synchronized List<Attribute> getClassAttributes() {
+        if (allAttributes == null || allAttributesModificationCount != modificationCount) {
+            List<Attribute> attributes = new ArrayList<>();
+            collectAttributes(attributes);
+            allAttributesModificationCount = modificationCount;
+            allAttributes = Collections.unmodifiableList(attributes);
+        }
+        return allAttributes;
+    }
+
+    /**
+     * Collects the attributes of class in the order of
+     * {@link #getAllAttribute()}, overridden by the subclasses to append
+     * their attribute lists.
+     *
+     * @param attributes the collected attributes
+     */
+    protected void collectAttributes(List<Attribute> attributes) {
     }
     
         
@@ -167,8 +206,43 @@ public abstract class Attributes<T extends JavaClass> implements IAttributes {
         setJavaClass((T) parent);
     }
     
+    /**
+     * @return the number of attribute list modifications, used to invalidate
+     * the cached attribute lists and the {@link CompositeAttributeList} views.
+     */
+    protected int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Invoked after an attribute list is modified or replaced.
+     */
+    protected void modified() {
+        modificationCount++;
+    }
+
+    /**
+     * @return the live view of attribute list which tracks the modifications
+     */
+    protected <E> List<E> view(List<E> list) {
+        return new AttributeListView<>(list, this);
+    }
+
+    /**
+     * @return the backing list of view, invoked by the setters to store the
+     * attribute list
+     */
+    protected static <E> List<E> unwrap(List<E> list) {
+        return AttributeListView.unwrap(list);
+    }
+
     @Override
     public void notifyListeners(Object object, String property, String oldValue, String newValue) {
+        if (ADD_ATTRIBUTE_PROPERTY.equals(property)
+                || REMOVE_ATTRIBUTE_PROPERTY.equals(property)
+                || MODIFY_ATTRIBUTE_PROPERTY.equals(property)) {
+            modified();
+        }
         listeners.forEach(listener -> 
             listener.propertyChange(new PropertyChangeEvent(object, property, oldValue, newValue))
         );
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.spec.extend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cached read-only concatenation of the attribute lists.
+ *
+ * The snapshot is rebuilt only if the modification count of {@link Attributes}
+ * is changed, which tracks the add/remove methods, the setters, the live list
+ * views returned by the getters and the attribute properties used by the
+ * filter, so repeated calls neither allocate nor walk the source lists.
+ *
+ * @author Gaurav Gupta
+ * @param <E> the attribute type
+ */
+public final class CompositeAttributeList<E> {
+
+    private final IntSupplier modificationCount;
+    private final Predicate<? super E> filter;
+    private final Supplier<? extends List<? extends E>>[] sources;
+
+    private int cachedModificationCount;
+    private List<E> snapshot;
+
+    @SafeVarargs
+    public CompositeAttributeList(IntSupplier modificationCount, Supplier<? extends List<? extends E>>... sources) {
+        this(modificationCount, element -> true, sources);
+    }
+
+    @SafeVarargs
+    public CompositeAttributeList(IntSupplier modificationCount, Predicate<? super E> filter, Supplier<? extends List<? extends E>>... sources) {
+        this.modificationCount = modificationCount;
+        this.filter = filter;
+        this.sources = sources;
+    }
+
+    /**
+     * @return the unmodifiable snapshot of source lists
+     */
+    public synchronized List<E> get() {
+        int currentModificationCount = modificationCount.getAsInt();
+        if (snapshot == null || cachedModificationCount != currentModificationCount) {
+            List<E> elements = new ArrayList<>();
+            for (Supplier<? extends List<? extends E>> source : sources) {
+                for (E element : source.get()) {
+                    if (filter.test(element)) {
+                        elements.add(element);
+                    }
+                }
+            }
+            cachedModificationCount = currentModificationCount;
+            snapshot = Collections.unmodifiableList(elements);
+        }
+        return snapshot;
+    }
+
+}
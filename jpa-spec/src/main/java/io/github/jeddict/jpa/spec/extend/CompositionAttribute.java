@@ -52,7 +52,11 @@ public abstract class CompositionAttribute<T extends JavaClass> extends BaseAttr
      * @param connectedClass the connectedClass to set
      */
     public void setConnectedClass(T connectedClass) {
+        boolean changed = this.connectedClass != connectedClass;
         this.connectedClass = connectedClass;
+        if (changed) {
+            notifyAttributes();
+        }
     }
 
     @Override
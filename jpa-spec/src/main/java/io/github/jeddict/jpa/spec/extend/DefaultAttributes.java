@@ -42,10 +42,9 @@ public class DefaultAttributes extends Attributes<DefaultClass> {
     }
 
     @Override
-    public List<Attribute> getAllAttribute(boolean includeParentClassAttibute) {
-        List<Attribute> attributes = super.getAllAttribute(includeParentClassAttibute);
+    protected void collectAttributes(List<Attribute> attributes) {
+        super.collectAttributes(attributes);
         attributes.addAll(this.getDefaultAttributes());
-        return attributes;
     }
     
     /**
@@ -55,14 +54,15 @@ public class DefaultAttributes extends Attributes<DefaultClass> {
         if (this.defaultAttributes == null) {
             this.defaultAttributes = new ArrayList<>();
         }
-        return defaultAttributes;
+        return view(this.defaultAttributes);
     }
 
     /**
      * @param attributes the defaultAttributes to set
      */
     public void setDefaultAttributes(List<DefaultAttribute> attributes) {
-        this.defaultAttributes = attributes;
+        this.defaultAttributes = unwrap(attributes);
+        modified();
     }
 
     public void addDefaultAttribute(DefaultAttribute attribute) {
@@ -0,0 +1,574 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.jpa.spec.extend;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlIDREF;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapters;
+import javax.xml.namespace.QName;
+
+/**
+ * Reflective deep copier for the model elements, an in-memory replacement of
+ * the JAXB marshal/unmarshal round trip with the same semantics :
+ * <ul>
+ * <li>static, transient and {@link XmlTransient} fields keep the value
+ * assigned by the no-arg constructor,</li>
+ * <li>{@link XmlIDREF} fields point to the copy of the referenced element if
+ * it is part of the copied graph otherwise they are left unresolved,</li>
+ * <li>values of the {@link XmlJavaTypeAdapter} bound fields and types (field,
+ * class or package level) pass through the adapter, a value marshalled to
+ * null is not copied,</li>
+ * <li><code>beforeMarshal</code> and <code>afterMarshal</code> callbacks are
+ * invoked on the source with the given marshaller,
+ * <code>beforeUnmarshal</code> and <code>afterUnmarshal</code> on the copy
+ * with the given unmarshaller and the copied parent,</li>
+ * <li>empty collections (not wrapped) keep the value assigned by the no-arg
+ * constructor,</li>
+ * <li>sorted collections and maps keep their comparator.</li>
+ * </ul>
+ * Only the classes bound with {@link XmlAccessType#FIELD} access (in this or
+ * any other library) are copied, immutable values are shared. The fields are
+ * accessed reflectively, same as the JAXB runtime. If the graph contains any
+ * other type, a field which is not accessible or an adapter which fails, the
+ * copy is empty and the caller falls back to the JAXB round trip.
+ *
+ * Shared references inside the copied graph are preserved through an
+ * identity map, so cost is linear in the number of copied objects.
+ *
+ * @author Gaurav Gupta
+ */
+public final class ElementCopier {
+
+    private static final String BEFORE_MARSHAL = "beforeMarshal";
+    private static final String AFTER_MARSHAL = "afterMarshal";
+    private static final String BEFORE_UNMARSHAL = "beforeUnmarshal";
+    private static final String AFTER_UNMARSHAL = "afterUnmarshal";
+    private static final String JAXB_ANNOTATION_PACKAGE = XmlTransient.class.getPackage().getName();
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class, BigInteger.class,
+            BigDecimal.class, Class.class, UUID.class, URI.class, Locale.class, QName.class
+    ));
+
+    private static final Map<Class<?>, ClassDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+
+    /**
+     * Result of the value which can not be copied with the JAXB semantics.
+     */
+    private static final Object UNSUPPORTED = new Object();
+
+    private final Marshaller marshaller;
+    private final Unmarshaller unmarshaller;
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+    private final List<Runnable> references = new ArrayList<>();
+    private final Map<Class<?>, XmlAdapter<Object, Object>> adapters = new HashMap<>();
+
+    private ElementCopier(Marshaller marshaller, Unmarshaller unmarshaller) {
+        this.marshaller = marshaller;
+        this.unmarshaller = unmarshaller;
+    }
+
+    /**
+     * @param element the element to copy
+     * @param marshaller the marshaller passed to the
+     * <code>beforeMarshal</code> and <code>afterMarshal</code> callbacks
+     * @param unmarshaller the unmarshaller passed to the
+     * <code>beforeUnmarshal</code> and <code>afterUnmarshal</code> callbacks
+     * @return the copy of element, empty if the graph can not be copied with
+     * the JAXB semantics
+     */
+    public static <T> Optional<T> copy(T element, Marshaller marshaller, Unmarshaller unmarshaller) {
+        ElementCopier copier = new ElementCopier(marshaller, unmarshaller);
+        Object copy = copier.copyValue(element, null);
+        if (copy == UNSUPPORTED) {
+            return Optional.empty();
+        }
+        copier.references.forEach(Runnable::run);
+        return Optional.ofNullable((T) copy);
+    }
+
+    private Object copyValue(Object value, Object parent) {
+        if (value == null) {
+            return null;
+        }
+        Object copy = copies.get(value);
+        if (copy != null) {
+            return copy;
+        }
+        Class<?> type = value.getClass();
+        if (value instanceof Collection) {
+            copy = copyCollection((Collection<?>) value, parent);
+        } else if (value instanceof Map) {
+            copy = copyMap((Map<?, ?>) value, parent);
+        } else if (type.isArray()) {
+            copy = copyArray(value, parent);
+        } else if (isImmutable(type)) {
+            copy = value;
+        } else {
+            copy = copyElement(value, parent);
+        }
+        return copy;
+    }
+
+    private Object copyElement(Object element, Object parent) {
+        ClassDescriptor descriptor = DESCRIPTORS.computeIfAbsent(element.getClass(), ClassDescriptor::new);
+        if (descriptor.unsupported != null) {
+            return UNSUPPORTED;
+        }
+        descriptor.invoke(descriptor.beforeMarshal, element, marshaller);
+        Object copy = descriptor.newInstance();
+        copies.put(element, copy);
+        descriptor.invoke(descriptor.beforeUnmarshal, copy, unmarshaller, parent);
+        for (Property property : descriptor.values) {
+            Object value = get(property.field, element);
+            if (value == null || property.isDefault(value)) {
+                continue;
+            }
+            Object valueCopy = property.adapter == null
+                    ? copyValue(value, copy)
+                    : copyAdaptedProperty(property, value, copy);
+            if (valueCopy == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            if (valueCopy != null) {
+                set(property.field, copy, valueCopy);
+            }
+        }
+        for (Field field : descriptor.references) {
+            Object value = get(field, element);
+            if (value != null) {
+                references.add(() -> set(field, copy, resolveReference(value)));
+            }
+        }
+        descriptor.invoke(descriptor.afterUnmarshal, copy, unmarshaller, parent);
+        descriptor.invoke(descriptor.afterMarshal, element, marshaller);
+        return copy;
+    }
+
+    /**
+     * Adapter is applied to each item of collection, items marshalled to
+     * null are skipped.
+     */
+    private Object copyAdaptedProperty(Property property, Object value, Object parent) {
+        if (!(value instanceof Collection)) {
+            return copyAdaptedValue(property.adapter, value, parent);
+        }
+        Collection<Object> copy = newCollection((Collection<?>) value);
+        for (Object item : (Collection<?>) value) {
+            Object itemCopy = copyAdaptedValue(property.adapter, item, parent);
+            if (itemCopy == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            if (itemCopy != null) {
+                copy.add(itemCopy);
+            }
+        }
+        return copy.isEmpty() && !property.wrapped ? null : copy;
+    }
+
+    private Object copyAdaptedValue(Class<? extends XmlAdapter> adapterType, Object value, Object parent) {
+        if (value == null) {
+            return null;
+        }
+        XmlAdapter<Object, Object> marshalAdapter = getAdapter(adapterType, marshaller.getAdapter(adapterType));
+        XmlAdapter<Object, Object> unmarshalAdapter = getAdapter(adapterType, unmarshaller.getAdapter(adapterType));
+        if (marshalAdapter == null || unmarshalAdapter == null) {
+            return UNSUPPORTED;
+        }
+        try {
+            Object boundValue = marshalAdapter.marshal(value);
+            if (boundValue == null) {
+                return null;
+            }
+            Object boundCopy = copyValue(boundValue, parent);
+            if (boundCopy == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            return unmarshalAdapter.unmarshal(boundCopy);
+        } catch (Exception ex) {
+            // the event handler of JAXB round trip decides
+            return UNSUPPORTED;
+        }
+    }
+
+    /**
+     * @return the adapter registered to the (un)marshaller or the instance
+     * shared by this copy
+     */
+    private XmlAdapter<Object, Object> getAdapter(Class<? extends XmlAdapter> adapterType, XmlAdapter registered) {
+        if (registered != null) {
+            return registered;
+        }
+        return adapters.computeIfAbsent(adapterType, ElementCopier::newInstance);
+    }
+
+    private Object copyCollection(Collection<?> collection, Object parent) {
+        Collection<Object> copy = newCollection(collection);
+        copies.put(collection, copy);
+        for (Object value : collection) {
+            Object valueCopy = copyValue(value, parent);
+            if (valueCopy == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            copy.add(valueCopy);
+        }
+        return copy;
+    }
+
+    private Object copyMap(Map<?, ?> map, Object parent) {
+        Map<Object, Object> copy = newMap(map);
+        copies.put(map, copy);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object key = copyValue(entry.getKey(), parent);
+            Object value = copyValue(entry.getValue(), parent);
+            if (key == UNSUPPORTED || value == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            copy.put(key, value);
+        }
+        return copy;
+    }
+
+    private Object copyArray(Object array, Object parent) {
+        int length = Array.getLength(array);
+        Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+        copies.put(array, copy);
+        for (int i = 0; i < length; i++) {
+            Object value = copyValue(Array.get(array, i), parent);
+            if (value == UNSUPPORTED) {
+                return UNSUPPORTED;
+            }
+            Array.set(copy, i, value);
+        }
+        return copy;
+    }
+
+    /**
+     * Resolves the IDREF value, single valued reference out of the copied
+     * graph is left null and unresolved items are skipped from collection.
+     */
+    private Object resolveReference(Object value) {
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            Collection<Object> copy = newCollection(collection);
+            for (Object item : collection) {
+                Object itemCopy = copies.get(item);
+                if (itemCopy != null) {
+                    copy.add(itemCopy);
+                }
+            }
+            return copy;
+        }
+        return copies.get(value);
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return Enum.class.isAssignableFrom(type)
+                || IMMUTABLE_TYPES.contains(type)
+                || type.getName().startsWith("java.time.");
+    }
+
+    /**
+     * @return the empty collection of same type, with the comparator of
+     * sorted collection
+     */
+    private static Collection<Object> newCollection(Collection<?> collection) {
+        if (collection instanceof SortedSet) {
+            return new TreeSet<>(((SortedSet<Object>) collection).comparator());
+        } else if (collection instanceof EnumSet) {
+            EnumSet copy = ((EnumSet) collection).clone();
+            copy.clear();
+            return copy;
+        }
+        Collection<Object> copy = newInstance(collection.getClass());
+        if (copy == null) {
+            copy = collection instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+        }
+        return copy;
+    }
+
+    /**
+     * @return the empty map of same type, with the comparator of sorted map
+     */
+    private static Map<Object, Object> newMap(Map<?, ?> map) {
+        if (map instanceof SortedMap) {
+            return new TreeMap<>(((SortedMap<Object, Object>) map).comparator());
+        } else if (map instanceof EnumMap) {
+            EnumMap copy = ((EnumMap) map).clone();
+            copy.clear();
+            return copy;
+        }
+        Map<Object, Object> copy = newInstance(map.getClass());
+        if (copy == null) {
+            copy = new LinkedHashMap<>();
+        }
+        return copy;
+    }
+
+    private static XmlAccessType getAccessType(Class<?> type) {
+        XmlAccessorType accessorType = type.getAnnotation(XmlAccessorType.class);
+        if (accessorType == null && type.getPackage() != null) {
+            accessorType = type.getPackage().getAnnotation(XmlAccessorType.class);
+        }
+        return accessorType == null ? XmlAccessType.PUBLIC_MEMBER : accessorType.value();
+    }
+
+    /**
+     * @return the adapter of field, declared on the field, the item type or
+     * the package
+     */
+    private static Class<? extends XmlAdapter> getAdapterType(Field field) {
+        XmlJavaTypeAdapter adapter = field.getAnnotation(XmlJavaTypeAdapter.class);
+        if (adapter != null) {
+            return adapter.value();
+        }
+        Class<?> itemType = getItemType(field);
+        if (itemType == null) {
+            return null;
+        }
+        adapter = itemType.getAnnotation(XmlJavaTypeAdapter.class);
+        if (adapter != null) {
+            return adapter.value();
+        }
+        Package fieldPackage = field.getDeclaringClass().getPackage();
+        if (fieldPackage != null) {
+            List<XmlJavaTypeAdapter> packageAdapters = new ArrayList<>();
+            if (fieldPackage.getAnnotation(XmlJavaTypeAdapter.class) != null) {
+                packageAdapters.add(fieldPackage.getAnnotation(XmlJavaTypeAdapter.class));
+            }
+            if (fieldPackage.getAnnotation(XmlJavaTypeAdapters.class) != null) {
+                packageAdapters.addAll(Arrays.asList(fieldPackage.getAnnotation(XmlJavaTypeAdapters.class).value()));
+            }
+            for (XmlJavaTypeAdapter packageAdapter : packageAdapters) {
+                if (packageAdapter.type() == itemType) {
+                    return packageAdapter.value();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the type of field or the item type of collection
+     */
+    private static Class<?> getItemType(Field field) {
+        if (!Collection.class.isAssignableFrom(field.getType())) {
+            return field.getType();
+        }
+        Type type = field.getGenericType();
+        if (type instanceof ParameterizedType) {
+            Type itemType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (itemType instanceof Class) {
+                return (Class<?>) itemType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the JAXB binding of class may include properties (not
+     * only fields)
+     */
+    private static boolean hasProperties(Class<?> type) {
+        for (Method method : type.getDeclaredMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isSynthetic()) {
+                continue;
+            }
+            for (Annotation annotation : method.getAnnotations()) {
+                if (annotation.annotationType().getName().startsWith(JAXB_ANNOTATION_PACKAGE)
+                        && annotation.annotationType() != XmlTransient.class) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static <T> T newInstance(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (T) constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static Object get(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void set(Field field, Object target, Object value) {
+        try {
+            field.set(target, value);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static class Property {
+
+        private final Field field;
+        private final Class<? extends XmlAdapter> adapter;
+        private final boolean wrapped;
+
+        private Property(Field field) {
+            this.field = field;
+            this.adapter = getAdapterType(field);
+            this.wrapped = field.isAnnotationPresent(XmlElementWrapper.class);
+        }
+
+        /**
+         * Empty collection is not marshalled (except wrapped), so the
+         * unmarshalled field keeps the value assigned by the constructor.
+         */
+        private boolean isDefault(Object value) {
+            return !wrapped && value instanceof Collection && ((Collection<?>) value).isEmpty();
+        }
+    }
+
+    private static class ClassDescriptor {
+
+        private Constructor<?> constructor;
+        private final List<Property> values = new ArrayList<>();
+        private final List<Field> references = new ArrayList<>();
+        private Method beforeMarshal;
+        private Method afterMarshal;
+        private Method beforeUnmarshal;
+        private Method afterUnmarshal;
+        private String unsupported;
+
+        private ClassDescriptor(Class<?> type) {
+            try {
+                constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException | RuntimeException ex) {
+                unsupported = type + " has no accessible no-arg constructor";
+                return;
+            }
+            for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                if (getAccessType(clazz) != XmlAccessType.FIELD || hasProperties(clazz)) {
+                    unsupported = clazz + " is not bound with field access";
+                    return;
+                }
+                try {
+                    for (Field field : clazz.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers)
+                                || Modifier.isTransient(modifiers)
+                                || field.isSynthetic()
+                                || field.isAnnotationPresent(XmlTransient.class)) {
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        if (field.isAnnotationPresent(XmlIDREF.class)) {
+                            references.add(field);
+                        } else {
+                            values.add(new Property(field));
+                        }
+                    }
+                    beforeMarshal = findCallback(beforeMarshal, clazz, BEFORE_MARSHAL, Marshaller.class);
+                    afterMarshal = findCallback(afterMarshal, clazz, AFTER_MARSHAL, Marshaller.class);
+                    beforeUnmarshal = findCallback(beforeUnmarshal, clazz, BEFORE_UNMARSHAL, Unmarshaller.class, Object.class);
+                    afterUnmarshal = findCallback(afterUnmarshal, clazz, AFTER_UNMARSHAL, Unmarshaller.class, Object.class);
+                } catch (RuntimeException ex) {
+                    unsupported = clazz + " is not accessible";
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Same as JAXB, only the nearest callback in the class hierarchy is
+         * invoked.
+         */
+        private static Method findCallback(Method callback, Class<?> clazz, String name, Class<?>... parameterTypes) {
+            if (callback != null) {
+                return callback;
+            }
+            try {
+                callback = clazz.getDeclaredMethod(name, parameterTypes);
+                callback.setAccessible(true);
+                return callback;
+            } catch (NoSuchMethodException ex) {
+                return null; // callback is optional
+            }
+        }
+
+        private Object newInstance() {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        private void invoke(Method callback, Object target, Object... args) {
+            if (callback != null) {
+                try {
+                    callback.invoke(target, args);
+                } catch (ReflectiveOperationException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        }
+    }
+
+}
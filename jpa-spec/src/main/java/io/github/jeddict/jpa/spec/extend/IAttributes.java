@@ -31,8 +31,17 @@ public interface IAttributes extends JCRELoader {
     
     List<Attribute> findAllAttribute(String name,boolean includeParentClassAttibute);
     
+    /**
+     * @return the unmodifiable attributes of class, cached until an attribute
+     * list is modified
+     */
     List<Attribute> getAllAttribute();
     
+    /**
+     * @param includeParentClassAttibute
+     * @return the unmodifiable attributes of class, preceded by the parent
+     * class attributes if included
+     */
     List<Attribute> getAllAttribute(boolean includeParentClassAttibute);
     
     boolean isAttributeExist(String name);
@@ -36,6 +36,7 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import static java.util.Objects.nonNull;
 import java.util.Set;
 import static java.util.stream.Collectors.toList;
@@ -306,7 +307,7 @@ public abstract class JavaClass<T extends IAttributes> extends FlowNode
     public List<Attribute> getSuperclassAttributes() {
         List<Attribute> attributes = Collections.<Attribute>emptyList();
         if (superclass != null && superclass instanceof IdentifiableClass) {
-            attributes = ((IdentifiableClass) superclass).getAttributes().getAllAttribute();
+            attributes = new ArrayList<>(((IdentifiableClass) superclass).getAttributes().getAllAttribute());
             attributes.addAll(superclass.getSuperclassAttributes());
         }
         return attributes;
@@ -329,10 +330,13 @@ public abstract class JavaClass<T extends IAttributes> extends FlowNode
         } else {
             throw new RuntimeException("JavaClass.addSuperclass > superclass is null");
         }
+        if (getRootElement() != null) {
+            getRootElement().updateInheritanceIndex(this, null);
+        }
     }
 
     public void removeSuperclass(JavaClass superclass) {
-
+        JavaClass previousSuperclass = this.superclass;
         if (superclass != null) {
             superclass.removeSubclass(this);
         } else {
@@ -340,6 +344,9 @@ public abstract class JavaClass<T extends IAttributes> extends FlowNode
         }
         this.superclassId = null;
         this.superclass = null;
+        if (getRootElement() != null) {
+            getRootElement().updateInheritanceIndex(this, previousSuperclass);
+        }
     }
 
     /**
@@ -476,10 +483,23 @@ public abstract class JavaClass<T extends IAttributes> extends FlowNode
      *
      */
     public void setClazz(String value) {
-        if (getPreviousClass() == null && getClazz() != null) {
-            setPreviousClass(getClazz());
+        String previousValue = getClazz();
+        if (getPreviousClass() == null && previousValue != null) {
+            setPreviousClass(previousValue);
         }
         this.clazz = value;
+        if (getRootElement() != null && !Objects.equals(previousValue, value)) {
+            getRootElement().updateClassIndex(this, previousValue);
+        }
+    }
+
+    @Override
+    public void setId(String value) {
+        String previousValue = getId();
+        super.setId(value);
+        if (getRootElement() != null && !Objects.equals(previousValue, value)) {
+            getRootElement().updateClassIdIndex(this, previousValue);
+        }
     }
 
     /**
@@ -1004,7 +1024,7 @@ public abstract class JavaClass<T extends IAttributes> extends FlowNode
      * @return
      */
     public List<Attribute> getAllJsonbPropertyOrder() {
-        List<Attribute> attributes = getAttributes().getAllAttribute();
+        List<Attribute> attributes = new ArrayList<>(getAttributes().getAllAttribute());
         List<Attribute> propertyOrder = new ArrayList<>(evalJsonbPropertyOrder());
         attributes.removeAll(propertyOrder);
         propertyOrder.addAll(attributes);
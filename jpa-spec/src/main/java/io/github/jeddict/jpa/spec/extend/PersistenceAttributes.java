@@ -84,17 +84,27 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
     @XmlElement(name = "many-to-many")
     private List<ManyToMany> manyToMany;
 
+    private final transient CompositeAttributeList<RelationAttribute> relationAttributes
+            = new CompositeAttributeList<>(this::getModificationCount, this::getOneToOne, this::getManyToOne, this::getOneToMany, this::getManyToMany);
+
+    private final transient CompositeAttributeList<SingleRelationAttribute> derivedRelationAttributes
+            = new CompositeAttributeList<>(this::getModificationCount, SingleRelationAttribute::isPrimaryKey, this::getOneToOne, this::getManyToOne);
+
+    private final transient CompositeAttributeList<Attribute> nonRelationAttributes
+            = new CompositeAttributeList<>(this::getModificationCount, PersistenceAttributes::isNonRelationAttribute, this::getBasic, this::getElementCollection);
+
     @Override
     public List<Basic> getBasic() {
         if (basic == null) {
             this.basic = new ArrayList<>();
         }
-        return this.basic;
+        return view(this.basic);
     }
 
     @Override
     public void setBasic(List<Basic> basic) {
-        this.basic = basic;
+        this.basic = unwrap(basic);
+        modified();
     }
 
     @Override
@@ -139,12 +149,13 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
         if (elementCollection == null) {
             this.elementCollection = new ArrayList<>();
         }
-        return this.elementCollection;
+        return view(this.elementCollection);
     }
 
     @Override
     public void setElementCollection(List<ElementCollection> elementCollection) {
-        this.elementCollection = elementCollection;
+        this.elementCollection = unwrap(elementCollection);
+        modified();
     }
 
     @Override
@@ -175,12 +186,13 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
         if (embedded == null) {
             this.embedded = new ArrayList<>();
         }
-        return this.embedded;
+        return view(this.embedded);
     }
 
     @Override
     public void setEmbedded(List<Embedded> embedded) {
-        this.embedded = embedded;
+        this.embedded = unwrap(embedded);
+        modified();
     }
 
     @Override
@@ -213,12 +225,13 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
         if (this._transient == null) {
             this._transient = new ArrayList<>();
         }
-        return this._transient;
+        return view(this._transient);
     }
 
     @Override
     public void setTransient(List<Transient> _transient) {
-        this._transient = _transient;
+        this._transient = unwrap(_transient);
+        modified();
     }
 
     @Override
@@ -249,12 +262,13 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
         if (manyToOne == null) {
             this.manyToOne = new ArrayList<>();
         }
-        return this.manyToOne;
+        return view(this.manyToOne);
     }
 
     @Override
     public void setManyToOne(List<ManyToOne> manyToOne) {
-        this.manyToOne = manyToOne;
+        this.manyToOne = unwrap(manyToOne);
+        modified();
     }
 
     @Override
@@ -285,12 +299,13 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
         if (oneToMany == null) {
             this.oneToMany = new ArrayList<>();
         }
-        return this.oneToMany;
+        return view(this.oneToMany);
     }
 
     @Override
     public void setOneToMany(List<OneToMany> oneToMany) {
-        this.oneToMany = oneToMany;
+        this.oneToMany = unwrap(oneToMany);
+        modified();
     }
 
     @Override
@@ -321,12 +336,13 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
         if (oneToOne == null) {
             this.oneToOne = new ArrayList<>();
         }
-        return this.oneToOne;
+        return view(this.oneToOne);
     }
 
     @Override
     public void setOneToOne(List<OneToOne> oneToOne) {
-        this.oneToOne = oneToOne;
+        this.oneToOne = unwrap(oneToOne);
+        modified();
     }
 
     @Override
@@ -357,12 +373,13 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
         if (manyToMany == null) {
             this.manyToMany = new ArrayList<>();
         }
-        return this.manyToMany;
+        return view(this.manyToMany);
     }
 
     @Override
     public void setManyToMany(List<ManyToMany> manyToMany) {
-        this.manyToMany = manyToMany;
+        this.manyToMany = unwrap(manyToMany);
+        modified();
     }
 
     @Override
@@ -390,27 +407,12 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
 
     @Override
     public List<RelationAttribute> getRelationAttributes() {
-        List<RelationAttribute> relationAttributes = new ArrayList<>(getOneToOne());
-        relationAttributes.addAll(getManyToOne());
-        relationAttributes.addAll(getOneToMany());
-        relationAttributes.addAll(getManyToMany());
-        return relationAttributes;
+        return relationAttributes.get();
     }
 
     @Override
     public List<SingleRelationAttribute> getDerivedRelationAttributes() {
-        List<SingleRelationAttribute> relationAttribute = new ArrayList<>();
-        relationAttribute.addAll(
-                getOneToOne().stream()
-                        .filter(SingleRelationAttribute::isPrimaryKey)
-                        .collect(toList())
-        );
-        relationAttribute.addAll(
-                getManyToOne().stream()
-                        .filter(SingleRelationAttribute::isPrimaryKey)
-                        .collect(toList())
-        );
-        return relationAttribute;
+        return derivedRelationAttributes.get();
     }
 
     @Override
@@ -535,14 +537,13 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
     }
 
     @Override
-    public List<Attribute> getAllAttribute(boolean includeParentClassAttibute) {
-        List<Attribute> attributes = super.getAllAttribute(includeParentClassAttibute);
+    protected void collectAttributes(List<Attribute> attributes) {
+        super.collectAttributes(attributes);
         attributes.addAll(getBasic());
         attributes.addAll(getElementCollection());
         attributes.addAll(getEmbedded());
         attributes.addAll(getRelationAttributes());
         attributes.addAll(getTransient());
-        return attributes;
     }
 
     @Override
@@ -612,12 +613,15 @@ public abstract class PersistenceAttributes<T extends ManagedClass> extends Attr
 
     @Override
     public List<Attribute> getNonRelationAttributes() {
-        List<Attribute> attributes = new ArrayList<>(getBasic());
-        attributes.addAll(getElementCollection()
-                .stream()
-                .filter(ec -> ec.getConnectedClass() == null)
-                .collect(toList()));
-        return attributes;
+        return nonRelationAttributes.get();
+    }
+
+    /**
+     * @return false for the element collection of embeddable
+     */
+    protected static boolean isNonRelationAttribute(Attribute attribute) {
+        return !(attribute instanceof ElementCollection)
+                || ((ElementCollection) attribute).getConnectedClass() == null;
     }
 
     @Override
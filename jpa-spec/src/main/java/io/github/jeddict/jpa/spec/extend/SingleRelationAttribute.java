@@ -26,6 +26,7 @@ import io.github.jeddict.source.AnnotationExplorer;
 import io.github.jeddict.source.MemberExplorer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -201,7 +202,11 @@ public abstract class SingleRelationAttribute extends RelationAttribute implemen
      * @param primaryKey the primaryKey to set
      */
     public void setPrimaryKey(Boolean primaryKey) {
+        boolean changed = !Objects.equals(this.primaryKey, primaryKey);
         this.primaryKey = primaryKey;
+        if (changed) {
+            notifyAttributes();
+        }
     }
     
     public IdClass getIdClass(){
@@ -15,12 +15,15 @@
  */
 package io.github.jeddict.jpa.spec.workspace;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlTransient;
 import io.github.jeddict.jpa.spec.extend.BaseElement;
 import io.github.jeddict.jpa.spec.extend.JavaClass;
 
@@ -40,6 +43,17 @@ public class WorkSpace extends BaseElement {
     @XmlElement(name="i")
     private Set<WorkSpaceItem> items;
 
+    /**
+     * class id to item index, rebuilt if items are replaced or resized
+     * directly.
+     */
+    @XmlTransient
+    private final Map<String, WorkSpaceItem> itemIndex = new HashMap<>();
+    @XmlTransient
+    private Set<WorkSpaceItem> indexedItems;
+    @XmlTransient
+    private int indexedSize;
+
     public WorkSpace() {
     }
 
@@ -95,21 +109,50 @@ public class WorkSpace extends BaseElement {
         this.items = items;
     }
 
-    public void addItem(WorkSpaceItem e) {
-        getItems().add(e);
+    public synchronized void addItem(WorkSpaceItem e) {
+        boolean current = isIndexCurrent();
+        if (getItems().add(e) && current) {
+            indexItem(e);
+            indexedSize++;
+        }
     }
 
-    public void removeItem(WorkSpaceItem o) {
-        getItems().remove(o);
+    public synchronized void removeItem(WorkSpaceItem o) {
+        boolean current = isIndexCurrent();
+        if (getItems().remove(o) && current) {
+            if (o.getJavaClass() != null) {
+                itemIndex.remove(o.getJavaClass().getId());
+            }
+            indexedSize--;
+        }
     }
-    
-    public boolean hasItem(JavaClass javaClass){
-        return getItems().contains(new WorkSpaceItem(javaClass));
+
+    public synchronized boolean hasItem(JavaClass javaClass) {
+        if (javaClass == null || javaClass.getId() == null) {
+            return false;
+        }
+        if (!isIndexCurrent()) {
+            itemIndex.clear();
+            indexedItems = getItems();
+            indexedSize = indexedItems.size();
+            indexedItems.forEach(this::indexItem);
+        }
+        return itemIndex.containsKey(javaClass.getId());
+    }
+
+    private boolean isIndexCurrent() {
+        return indexedItems != null && indexedItems == items && indexedSize == items.size();
+    }
+
+    private void indexItem(WorkSpaceItem item) {
+        if (item.getJavaClass() != null && item.getJavaClass().getId() != null) {
+            itemIndex.put(item.getJavaClass().getId(), item);
+        }
     }
 
     @Override
     public int hashCode() {
-        return getItems().size();
+        return getId() != null ? getId().hashCode() : System.identityHashCode(this);
     }
 
     @Override
@@ -124,10 +167,7 @@ public class WorkSpace extends BaseElement {
             return false;
         }
         final WorkSpace other = (WorkSpace) obj;
-        if (!getItems().equals(other.getItems())) {
-            return false;
-        }
-        return true;
+        return getId() != null && getId().equals(other.getId());
     }
 
     @Override
@@ -22,6 +22,7 @@ import io.github.jeddict.jpa.spec.extend.FlowNode;
 import io.github.jeddict.jpa.spec.extend.JavaClass;
 import io.github.jeddict.jpa.spec.extend.RelationAttribute;
 import io.github.jeddict.jpa.spec.workspace.WorkSpace;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
@@ -41,7 +42,7 @@ public class JSONBDocument extends FlowNode {
 
     public void loadAttribute() {
         List<JSONBNode> nodes = new LinkedList<>();
-        List<Attribute> attributes = javaClass.getAttributes().getAllAttribute();
+        List<Attribute> attributes = new ArrayList<>(javaClass.getAttributes().getAllAttribute());
         if (!javaClass.getJsonbPropertyOrder().isEmpty()) {
             attributes = javaClass.getAllJsonbPropertyOrder();
         } else {
@@ -297,7 +297,7 @@ public class DocumentWidget extends FlowNodeWidget<JSONBDocument, JSONBModelerSc
         JavaClass javaClass = this.getBaseElementSpec().getJavaClass();
         List<Attribute> attributes;
         if (javaClass.getJsonbPropertyOrder().isEmpty()) {
-            attributes = javaClass.getAttributes().getAllAttribute();
+            attributes = new ArrayList<>(javaClass.getAttributes().getAllAttribute());
             attributes.sort(Comparator.comparing(Attribute::getName));
         } else {
             attributes = javaClass.getAllJsonbPropertyOrder();
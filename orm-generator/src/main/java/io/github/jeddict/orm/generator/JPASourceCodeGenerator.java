@@ -22,6 +22,7 @@ import io.github.jeddict.orm.generator.compiler.CompilerConfig;
 import io.github.jeddict.orm.generator.compiler.CompilerConfigManager;
 import io.github.jeddict.orm.generator.spec.ModuleGenerator;
 import io.github.jeddict.orm.generator.util.ClassesRepository;
+import io.github.jeddict.orm.generator.util.ParallelGenerator;
 import org.openide.util.Lookup;
 
 /**
@@ -36,15 +37,13 @@ public class JPASourceCodeGenerator implements ISourceCodeGenerator {
         CompilerConfig compilerConfig = new CompilerConfig(entityMappings.getPackage());
         CompilerConfigManager.getInstance().initialize(compilerConfig);
         ClassesRepository.getInstance().clear();
-        Lookup.getDefault()
-                .lookupAll(ModuleGenerator.class)
-                .forEach((moduleGenerator) -> {
-                    moduleGenerator.generate(task, 
-                            applicationConfig.getTargetProject(), 
-                            applicationConfig.getTargetSourceGroup(), 
-                            entityMappings);
-                });
-        
+        new ModuleGeneratorPipeline(
+                Lookup.getDefault().lookupAll(ModuleGenerator.class),
+                ParallelGenerator.getParallelism()
+        ).run(task,
+                applicationConfig.getTargetProject(),
+                applicationConfig.getTargetSourceGroup(),
+                entityMappings);
     }
 
 }
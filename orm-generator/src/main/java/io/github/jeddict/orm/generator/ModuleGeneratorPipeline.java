@@ -0,0 +1,307 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.orm.generator;
+
+import io.github.jeddict.jcode.task.ITaskSupervisor;
+import io.github.jeddict.jcode.util.GenerationContext;
+import io.github.jeddict.jpa.spec.EntityMappings;
+import io.github.jeddict.orm.generator.spec.ModuleGenerator;
+import io.github.jeddict.orm.generator.util.ParallelGenerator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.SourceGroup;
+
+/**
+ * Runs the module generators as a DAG on a worker pool.
+ *
+ * A generator depends on the preceding generators (in lookup order) that
+ * write its inputs, write its outputs or read its outputs, so the result is
+ * same as of sequential run. Independent generators run concurrently.
+ *
+ * Generators run in the generation context of the calling thread.
+ * Log and progress of each generator are buffered and replayed to the task in
+ * lookup order, as soon as the generator and its predecessors are completed,
+ * while the item counter of task is incremented immediately. Failure or
+ * cancellation of any generator or of the task cancels the generators not yet
+ * started, the <code>proceed()</code> of running generators returns false.
+ *
+ * @author Gaurav Gupta
+ */
+final class ModuleGeneratorPipeline {
+
+    private final List<ModuleGenerator> generators;
+
+    private final int parallelism;
+
+    private volatile boolean cancelled;
+
+    /**
+     * @param parallelism the number of generators run concurrently, one for
+     * sequential run and zero or less for the number of available processors.
+     */
+    ModuleGeneratorPipeline(Collection<? extends ModuleGenerator> generators, int parallelism) {
+        this.generators = new ArrayList<>(generators);
+        this.parallelism = parallelism;
+    }
+
+    void run(ITaskSupervisor task, Project project, SourceGroup sourceGroup, EntityMappings entityMappings) {
+        int poolSize = ParallelGenerator.getPoolSize(parallelism);
+        if (poolSize < 2 || generators.size() < 2) {
+            for (ModuleGenerator generator : generators) {
+                generator.generate(task, project, sourceGroup, entityMappings);
+            }
+            return;
+        }
+
+        int size = generators.size();
+        List<List<Integer>> dependencies = getDependencies(generators);
+        Stage[] stages = new Stage[size];
+        boolean[] completed = new boolean[size];
+        int running = 0;
+        int replayed = 0;
+        Throwable failure = null;
+
+        GenerationContext context = GenerationContext.getCurrent();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(poolSize, size));
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(pool);
+        try {
+            while (true) {
+                if (!cancelled && task.isCancelled()) {
+                    cancelled = true;
+                }
+                if (!cancelled) {
+                    for (int i = 0; i < size; i++) {
+                        if (stages[i] == null && isReady(dependencies.get(i), completed)) {
+                            Stage stage = stages[i] = new Stage(task);
+                            ModuleGenerator generator = generators.get(i);
+                            int index = i;
+                            completionService.submit(context.wrap(() -> {
+                                try {
+                                    generator.generate(stage, project, sourceGroup, entityMappings);
+                                } catch (RuntimeException | Error ex) {
+                                    stage.failure = ex;
+                                    cancelled = true;
+                                }
+                                return index;
+                            }));
+                            running++;
+                        }
+                    }
+                }
+                if (running == 0) {
+                    break;
+                }
+                int index = completionService.take().get();
+                running--;
+                completed[index] = true;
+                if (failure == null) {
+                    failure = stages[index].failure;
+                }
+                while (replayed < size && completed[replayed]) {
+                    stages[replayed++].replay(task);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+            pool.shutdownNow();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = replayed; i < size; i++) {
+            if (completed[i]) {
+                stages[i].replay(task);
+            }
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    /**
+     * @return the indexes of preceding generators each generator depends on
+     */
+    static List<List<Integer>> getDependencies(List<ModuleGenerator> generators) {
+        List<List<Integer>> dependencies = new ArrayList<>(generators.size());
+        for (int i = 0; i < generators.size(); i++) {
+            List<Integer> generatorDependencies = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                if (isDependent(generators.get(j), generators.get(i))) {
+                    generatorDependencies.add(j);
+                }
+            }
+            dependencies.add(generatorDependencies);
+        }
+        return dependencies;
+    }
+
+    private static boolean isDependent(ModuleGenerator preceding, ModuleGenerator generator) {
+        Set<String> precedingInputs = preceding.getInputs();
+        Set<String> precedingOutputs = preceding.getOutputs();
+        Set<String> inputs = generator.getInputs();
+        Set<String> outputs = generator.getOutputs();
+        if (precedingInputs == null || precedingOutputs == null || inputs == null || outputs == null) {
+            return true;
+        }
+        return !Collections.disjoint(precedingOutputs, inputs)
+                || !Collections.disjoint(precedingOutputs, outputs)
+                || !Collections.disjoint(precedingInputs, outputs);
+    }
+
+    private static boolean isReady(List<Integer> dependencies, boolean[] completed) {
+        for (int dependency : dependencies) {
+            if (!completed[dependency]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Supervisor of a generator, buffers the log and progress of generator to
+     * replay it to the task.
+     */
+    private class Stage implements ITaskSupervisor {
+
+        private final ITaskSupervisor task;
+
+        private final List<Consumer<ITaskSupervisor>> actions = Collections.synchronizedList(new ArrayList<>());
+
+        private Throwable failure;
+
+        private Stage(ITaskSupervisor task) {
+            this.task = task;
+        }
+
+        private void replay(ITaskSupervisor task) {
+            actions.forEach(action -> action.accept(task));
+            actions.clear();
+        }
+
+        @Override
+        public boolean start(int itemTotal) {
+            actions.add(task -> task.start(itemTotal));
+            return !isCancelled();
+        }
+
+        @Override
+        public boolean start(int contributor, int itemTotal) {
+            actions.add(task -> task.start(contributor, itemTotal));
+            return !isCancelled();
+        }
+
+        @Override
+        public int increment() {
+            return increment(1);
+        }
+
+        /**
+         * Counter of task is shared by the stages, so it is incremented under
+         * the lock of task.
+         */
+        @Override
+        public int increment(int step) {
+            synchronized (task) {
+                return task.increment(step);
+            }
+        }
+
+        @Override
+        public boolean proceed() {
+            return !isCancelled();
+        }
+
+        @Override
+        public boolean proceed(int step) {
+            if (step > 0) {
+                increment(step);
+            }
+            return !isCancelled();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            if (!cancelled && task.isCancelled()) {
+                cancelled = true;
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void log() {
+            actions.add(ITaskSupervisor::log);
+        }
+
+        @Override
+        public void log(int level) {
+            actions.add(task -> task.log(level));
+        }
+
+        @Override
+        public void log(String msg) {
+            actions.add(task -> task.log(msg));
+        }
+
+        @Override
+        public void log(int level, String msg) {
+            actions.add(task -> task.log(level, msg));
+        }
+
+        @Override
+        public void log(String msg, boolean newline) {
+            actions.add(task -> task.log(msg, newline));
+        }
+
+        @Override
+        public void log(String msg, int padding) {
+            actions.add(task -> task.log(msg, padding));
+        }
+
+        @Override
+        public void log(int level, String msg, boolean newline) {
+            actions.add(task -> task.log(level, msg, newline));
+        }
+
+        @Override
+        public boolean cancel() {
+            cancelled = true;
+            actions.add(ITaskSupervisor::cancel);
+            return true;
+        }
+
+        @Override
+        public void fail() {
+            cancelled = true;
+            actions.add(ITaskSupervisor::fail);
+        }
+    }
+
+}
@@ -44,7 +44,6 @@ import java.util.List;
 import java.util.Map;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 import io.github.jeddict.util.StringUtils;
 import static io.github.jeddict.util.StringUtils.EMPTY;
 
@@ -498,15 +497,13 @@ public abstract class ClassDefSnippet implements WritableSnippet {
             }
         }
 
-        for (AnnotationSnippet snippet : this.getAnnotation()
-                .values()
-                .stream()
-                .flatMap(annot -> annot.stream())
-                .collect(toList())) {
-            imports.addAll(snippet.getImportSnippets());
+        for (List<AnnotationSnippet> snippets : this.getAnnotation().values()) {
+            for (AnnotationSnippet snippet : snippets) {
+                imports.addAll(snippet.getImportSnippets());
+            }
         }
 
-        imports.addAll(this.getInterfaces().stream().collect(toList()));
+        imports.addAll(this.getInterfaces());
 
         for (Snippet snippet : this.getJSONBSnippets()) {
             imports.addAll(snippet.getImportSnippets());
@@ -514,13 +511,11 @@ public abstract class ClassDefSnippet implements WritableSnippet {
 
         List<String> customImportSnippets = getCustomSnippet().get(IMPORT);
         if (customImportSnippets != null) {
-            imports.addAll(
-                    customImportSnippets
-                            .stream()
-                            .filter(snippet -> !snippet.startsWith("import"))
-                            .filter(snippet -> !snippet.startsWith(";"))
-                            .collect(toSet())
-            );
+            for (String snippet : customImportSnippets) {
+                if (!snippet.startsWith("import") && !snippet.startsWith(";")) {
+                    imports.add(snippet);
+                }
+            }
         }
 
         if (isJaxbSupport()) {
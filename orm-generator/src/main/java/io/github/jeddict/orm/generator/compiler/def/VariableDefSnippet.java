@@ -108,6 +108,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableCollection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -116,7 +117,6 @@ import java.util.Optional;
 import java.util.Set;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 import io.github.jeddict.util.StringUtils;
 import static io.github.jeddict.util.StringUtils.EMPTY;
 import static io.github.jeddict.util.StringUtils.isNotBlank;
@@ -175,6 +175,7 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
     private AssociationOverridesSnippet associationOverrides;
     private AttributeOverridesSnippet attributeOverrides;
     private TypeIdentifierSnippet typeIdentifier;
+    private Collection<String> typeImportSnippets;
     private final Attribute attribute;
     private Map<AttributeSnippetLocationType, List<String>> customSnippet;
     private Map<AttributeAnnotationLocationType, List<AnnotationSnippet>> annotation;
@@ -330,11 +331,13 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
 
     public void setType(String type) {
         classHelper.setClassName(type);
+        typeImportSnippets = null;
     }
 
     public void setType(String rootPackage, JavaClass javaClass) {
         classHelper.setClassName(javaClass.getClazz());
         classHelper.setPackageName(javaClass.getAbsolutePackage(rootPackage));
+        typeImportSnippets = null;
     }
 
     public String getName() {
@@ -383,6 +386,7 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
 
     public void setRelation(RelationSnippet relationType) {
         this.relation = relationType;
+        typeImportSnippets = null;
     }
 
     public OrderBySnippet getOrderBy() {
@@ -467,17 +471,25 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    /**
+     * Resolves the type identifier and type imports once, shared by the
+     * constructors and class imports. Discarded if the type, relation, element
+     * collection, collection types, constraints or annotations are set.
+     */
     public Collection<String> getTypeImportSnippets() throws InvalidDataException {
-        Collection<String> imports = new HashSet<>();
-        if (attribute instanceof CollectionTypeHandler) {
-            typeIdentifier = new TypeIdentifierSnippet(this);
-            classHelper = new ClassHelper();
-            classHelper.setClassName(typeIdentifier.getVariableType());
-            imports.addAll(typeIdentifier.getImportSnippets());
-        } else if (classHelper.getPackageName() != null) {
-            imports.add(classHelper.getFQClassName());
+        if (typeImportSnippets == null) {
+            Collection<String> imports = new HashSet<>();
+            if (attribute instanceof CollectionTypeHandler) {
+                typeIdentifier = new TypeIdentifierSnippet(this);
+                classHelper = new ClassHelper();
+                classHelper.setClassName(typeIdentifier.getVariableType());
+                imports.addAll(typeIdentifier.getImportSnippets());
+            } else if (classHelper.getPackageName() != null) {
+                imports.add(classHelper.getFQClassName());
+            }
+            typeImportSnippets = unmodifiableCollection(imports);
         }
-        return imports;
+        return typeImportSnippets;
     }
 
     @Override
@@ -595,12 +607,10 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
             imports.addAll(associationOverrides.getImportSnippets());
         }
 
-        for (AnnotationSnippet snippet : this.getAnnotation()
-                .values()
-                .stream()
-                .flatMap(annot -> annot.stream())
-                .collect(toList())) {
-            imports.addAll(snippet.getImportSnippets());
+        for (List<AnnotationSnippet> snippets : this.getAnnotation().values()) {
+            for (AnnotationSnippet snippet : snippets) {
+                imports.addAll(snippet.getImportSnippets());
+            }
         }
 
         for (ConstraintSnippet snippet : this.getAttributeConstraints()) {
@@ -625,13 +635,11 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
 
         List<String> customImportSnippets = getCustomSnippet().get(IMPORT);
         if (customImportSnippets != null) {
-            imports.addAll(
-                    customImportSnippets
-                            .stream()
-                            .filter(snippet -> !snippet.startsWith("import"))
-                            .filter(snippet -> !snippet.startsWith(";"))
-                            .collect(toSet())
-            );
+            for (String snippet : customImportSnippets) {
+                if (!snippet.startsWith("import") && !snippet.startsWith(";")) {
+                    imports.add(snippet);
+                }
+            }
         }
 
         return imports;
@@ -649,6 +657,7 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
      */
     public void setElementCollection(ElementCollectionSnippet elementCollection) {
         this.elementCollection = elementCollection;
+        typeImportSnippets = null;
     }
 
     /**
@@ -743,6 +752,7 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
      */
     public void setAnnotation(Map<AttributeAnnotationLocationType, List<AnnotationSnippet>> annotation) {
         this.annotation = annotation;
+        typeImportSnippets = null;
     }
 
     /**
@@ -779,6 +789,7 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
      */
     public void setKeyConstraints(List<ConstraintSnippet> keyConstraints) {
         this.keyConstraints = keyConstraints;
+        typeImportSnippets = null;
     }
 
     /**
@@ -801,6 +812,7 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
      */
     public void setValueConstraints(List<ConstraintSnippet> valueConstraints) {
         this.valueConstraints = valueConstraints;
+        typeImportSnippets = null;
     }
 
     /**
@@ -1268,6 +1280,7 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
      */
     public void setCollectionType(String collectionType) {
         this.collectionType = collectionType;
+        typeImportSnippets = null;
     }
 
     /**
@@ -1282,6 +1295,7 @@ public class VariableDefSnippet implements Snippet, AttributeOverridesHandler, A
      */
     public void setCollectionImplType(String collectionImplType) {
         this.collectionImplType = collectionImplType;
+        typeImportSnippets = null;
     }
 
     /**
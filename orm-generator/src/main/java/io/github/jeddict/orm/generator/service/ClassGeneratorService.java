@@ -25,6 +25,8 @@ import static io.github.jeddict.jcode.console.Console.FG_DARK_RED;
 import static io.github.jeddict.jcode.console.Console.FG_RED;
 import io.github.jeddict.jcode.task.ITaskSupervisor;
 import static io.github.jeddict.jcode.util.Constants.JAVA_EXT_SUFFIX;
+import io.github.jeddict.jcode.util.GenerationOutput;
+import io.github.jeddict.jcode.util.GenerationProfile;
 import io.github.jeddict.jpa.spec.DefaultClass;
 import io.github.jeddict.jpa.spec.Embeddable;
 import io.github.jeddict.jpa.spec.Entity;
@@ -41,20 +43,29 @@ import io.github.jeddict.orm.generator.spec.WritableSnippet;
 import io.github.jeddict.orm.generator.util.ClassType;
 import io.github.jeddict.orm.generator.util.ClassesRepository;
 import io.github.jeddict.orm.generator.util.ORMConverterUtil;
+import io.github.jeddict.orm.generator.util.ParallelGenerator;
 import static io.github.jeddict.settings.generate.GenerateSettings.isSyncExistingSourceCode;
 import io.github.jeddict.source.SourceExplorer;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import static java.util.Collections.EMPTY_SET;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import static java.util.stream.Collectors.toList;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.SourceGroup;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
+import org.openide.util.Exceptions;
 import org.openide.util.lookup.ServiceProvider;
 
 @ServiceProvider(service = ModuleGenerator.class)
@@ -69,6 +80,9 @@ public class ClassGeneratorService implements ModuleGenerator {
 
     private SourceExplorer sourceExplorer;
 
+    private Integer parallelism;
+    private ParallelGenerator parallelGenerator;
+
     @Override
     public void generate(ITaskSupervisor task, Project project, SourceGroup sourceGroup, EntityMappings entityMappings) {
         try {
@@ -86,6 +100,8 @@ public class ClassGeneratorService implements ModuleGenerator {
                 );
             }
 
+            parallelGenerator = new ParallelGenerator(parallelism == null ? ParallelGenerator.getParallelism() : parallelism);
+
             generateMappedSuperClasses();
             generateEntityClasses();
             generateEmbeddableClasses();
@@ -93,7 +109,29 @@ public class ClassGeneratorService implements ModuleGenerator {
             generateBeanClasses();
         } catch (InvalidDataException | IOException ex) {
             ExceptionUtils.printStackTrace(ex);
+        } finally {
+            if (parallelGenerator != null) {
+                parallelGenerator.close();
+                parallelGenerator = null;
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getInputs() {
+        return emptySet();
+    }
+
+    /**
+     * Sync of existing source code updates the model read by the other
+     * generators.
+     */
+    @Override
+    public Set<String> getOutputs() {
+        if (isSyncExistingSourceCode()) {
+            return new HashSet<>(Arrays.asList(JAVA_CLASSES, ENTITY_MAPPINGS));
         }
+        return singleton(JAVA_CLASSES);
     }
 
     private void generateBeanClasses() throws InvalidDataException, IOException {
@@ -104,13 +142,14 @@ public class ClassGeneratorService implements ModuleGenerator {
         if(!parsedBeanClasses.isEmpty()){
             task.log(Console.wrap("Generating Class : " , FG_DARK_RED, BOLD), true);
         }
-        for (BeanClass parsedBeanClasse : parsedBeanClasses) {
-            task.log(parsedBeanClasse.getClazz(), true);
-            ClassDefSnippet classDef = new BeanClassGenerator(parsedBeanClasse, packageName).getClassDef();
-            classDef.setJaxbSupport(entityMappings.getJaxbSupport());
-            classesRepository.addWritableSnippet(ClassType.DEFAULT_CLASS, classDef);
-            ORMConverterUtil.writeSnippet(classDef, destDir);
-        }
+        generateClasses(parsedBeanClasses, false,
+                beanClass -> ClassType.DEFAULT_CLASS,
+                beanClass -> {
+                    ClassDefSnippet classDef = new BeanClassGenerator(beanClass, packageName).getClassDef();
+                    classDef.setJaxbSupport(entityMappings.getJaxbSupport());
+                    return classDef;
+                },
+                null);
     }
     
     private void generateDefaultClasses() throws InvalidDataException, IOException {
@@ -121,14 +160,12 @@ public class ClassGeneratorService implements ModuleGenerator {
         if(!parsedDefaultClasses.isEmpty()){
             task.log(Console.wrap("Generating IdClass/PrimaryKey Class : " , FG_DARK_RED, BOLD), true);
         }
-        for (DefaultClass parsedDefaultClasse : parsedDefaultClasses) {
-            task.log(parsedDefaultClasse.getClazz(), true);
-            if (parsedDefaultClasse.isEmbeddable()) {
-                generateEmbededIdClasses(parsedDefaultClasse);
-            } else {
-                generateIdClasses(parsedDefaultClasse);
-            }
-        }
+        generateClasses(parsedDefaultClasses, false,
+                defaultClass -> defaultClass.isEmbeddable() ? ClassType.EMBEDED_CLASS : ClassType.DEFAULT_CLASS,
+                defaultClass -> defaultClass.isEmbeddable()
+                        ? new EmbeddableIdClassGenerator(defaultClass, packageName).getClassDef()
+                        : new DefaultClassGenerator(defaultClass, packageName).getClassDef(),
+                null);
     }
     
     private void generateEmbeddableClasses() throws InvalidDataException, IOException {
@@ -139,15 +176,14 @@ public class ClassGeneratorService implements ModuleGenerator {
         if(!parsedEmbeddables.isEmpty()){
             task.log(Console.wrap("Generating Embeddable Class : " , FG_DARK_RED, BOLD), true);
         }
-        for (Embeddable parsedEmbeddable : parsedEmbeddables) {
-            task.log(parsedEmbeddable.getClazz(), true);
-            loadExistingSnippet(parsedEmbeddable);
-            ManagedClassDefSnippet classDef = new EmbeddableGenerator(parsedEmbeddable, packageName).getClassDef();
-            classDef.setJaxbSupport(entityMappings.getJaxbSupport());
-
-            classesRepository.addWritableSnippet(ClassType.EMBEDED_CLASS, classDef);
-            parsedEmbeddable.setFileObject(ORMConverterUtil.writeSnippet(classDef, destDir));
-        }
+        generateClasses(parsedEmbeddables, true,
+                embeddable -> ClassType.EMBEDED_CLASS,
+                embeddable -> {
+                    ManagedClassDefSnippet classDef = new EmbeddableGenerator(embeddable, packageName).getClassDef();
+                    classDef.setJaxbSupport(entityMappings.getJaxbSupport());
+                    return classDef;
+                },
+                Embeddable::setFileObject);
     }
 
     private void generateEntityClasses() throws InvalidDataException, IOException {
@@ -158,15 +194,14 @@ public class ClassGeneratorService implements ModuleGenerator {
         if(!parsedEntities.isEmpty()){
             task.log(Console.wrap("Generating Entity Class : " , FG_DARK_RED, BOLD), true);
         }
-        for (Entity parsedEntity : parsedEntities) {
-            task.log(parsedEntity.getClazz(), true);
-            loadExistingSnippet(parsedEntity);
-            ManagedClassDefSnippet classDef = new EntityGenerator(parsedEntity, packageName).getClassDef();
-            classDef.setJaxbSupport(entityMappings.getJaxbSupport());
-
-            classesRepository.addWritableSnippet(ClassType.ENTITY_CLASS, classDef);
-            parsedEntity.setFileObject(ORMConverterUtil.writeSnippet(classDef, destDir));
-        }
+        generateClasses(parsedEntities, true,
+                entity -> ClassType.ENTITY_CLASS,
+                entity -> {
+                    ManagedClassDefSnippet classDef = new EntityGenerator(entity, packageName).getClassDef();
+                    classDef.setJaxbSupport(entityMappings.getJaxbSupport());
+                    return classDef;
+                },
+                Entity::setFileObject);
     }
 
     private void generateMappedSuperClasses() throws InvalidDataException, IOException {
@@ -177,27 +212,107 @@ public class ClassGeneratorService implements ModuleGenerator {
         if(!parsedMappedSuperclasses.isEmpty()){
         task.log(Console.wrap("Generating MappedSuperclass Class : " , FG_DARK_RED, BOLD), true);
         }
-        for (MappedSuperclass parsedMappedSuperclass : parsedMappedSuperclasses) {
-            task.log(parsedMappedSuperclass.getClazz(), true);
-            loadExistingSnippet(parsedMappedSuperclass);
-            ManagedClassDefSnippet classDef = new MappedSuperClassGenerator(parsedMappedSuperclass, packageName).getClassDef();
-            classDef.setJaxbSupport(entityMappings.getJaxbSupport());
+        generateClasses(parsedMappedSuperclasses, true,
+                mappedSuperclass -> ClassType.SUPER_CLASS,
+                mappedSuperclass -> {
+                    ManagedClassDefSnippet classDef = new MappedSuperClassGenerator(mappedSuperclass, packageName).getClassDef();
+                    classDef.setJaxbSupport(entityMappings.getJaxbSupport());
+                    return classDef;
+                },
+                MappedSuperclass::setFileObject);
+    }
+
+    /**
+     * Generates the classes in sequence or, if parallelism is more than one,
+     * on the bounded fork-join pool.
+     *
+     * In parallel mode, the class names are logged and existing sources are
+     * synced in the model order first (sync updates the model and shares the
+     * java parser), then the snippets are assembled, expanded and written in
+     * parallel and finally registered in the model order, so the output and
+     * log are same as of sequential mode.
+     *
+     * In both modes, the sources are formatted in one batch and then written.
+     *
+     * Virtual output has no file objects, so the file objects of model are
+     * not updated.
+     */
+    private <T extends JavaClass> void generateClasses(
+            List<T> javaClasses,
+            boolean syncExistingSnippet,
+            Function<T, ClassType> classType,
+            Function<T, ClassDefSnippet> classDefFactory,
+            BiConsumer<T, FileObject> fileObjectConsumer) throws InvalidDataException, IOException {
+
+        if (GenerationOutput.getCurrent().isVirtual()) {
+            fileObjectConsumer = null;
+        }
+        if (!parallelGenerator.isParallel() || javaClasses.size() < 2) {
+            List<GeneratedClass> generatedClasses = new ArrayList<>(javaClasses.size());
+            for (T javaClass : javaClasses) {
+                task.log(javaClass.getClazz(), true);
+                try (GenerationProfile.Span span = GenerationProfile.javaClass(javaClass.getFQN())) {
+                    if (syncExistingSnippet) {
+                        loadExistingSnippet(javaClass);
+                    }
+                    ClassDefSnippet classDef = classDefFactory.apply(javaClass);
+                    classesRepository.addWritableSnippet(classType.apply(javaClass), classDef);
+                    generatedClasses.add(new GeneratedClass(classDef, getSnippet(classDef)));
+                }
+            }
+            writeClasses(javaClasses, generatedClasses, fileObjectConsumer);
+            return;
+        }
+
+        for (T javaClass : javaClasses) {
+            task.log(javaClass.getClazz(), true);
+            if (syncExistingSnippet) {
+                loadExistingSnippet(javaClass);
+            }
+        }
+        List<GeneratedClass> generatedClasses = parallelGenerator.generate(javaClasses, javaClass -> {
+            try (GenerationProfile.Span span = GenerationProfile.javaClass(javaClass.getFQN())) {
+                ClassDefSnippet classDef = classDefFactory.apply(javaClass);
+                return new GeneratedClass(classDef, getSnippet(classDef));
+            }
+        });
+        for (int i = 0; i < javaClasses.size(); i++) {
+            classesRepository.addWritableSnippet(classType.apply(javaClasses.get(i)), generatedClasses.get(i).classDef);
+        }
+        writeClasses(javaClasses, generatedClasses, fileObjectConsumer);
+    }
 
-            classesRepository.addWritableSnippet(ClassType.SUPER_CLASS, classDef);
-            parsedMappedSuperclass.setFileObject(ORMConverterUtil.writeSnippet(classDef, destDir));
+    private String getSnippet(ClassDefSnippet classDef) {
+        try {
+            return ORMConverterUtil.getSnippet(classDef);
+        } catch (InvalidDataException ex) {
+            Exceptions.printStackTrace(ex);
+            return null;
         }
     }
 
-    private void generateEmbededIdClasses(DefaultClass defaultClass) throws InvalidDataException, IOException {
-        ClassDefSnippet classDef = new EmbeddableIdClassGenerator(defaultClass, packageName).getClassDef();
-        classesRepository.addWritableSnippet(ClassType.EMBEDED_CLASS, classDef);
-        ORMConverterUtil.writeSnippet(classDef, destDir);
+    private <T extends JavaClass> void writeClasses(
+            List<T> javaClasses,
+            List<GeneratedClass> generatedClasses,
+            BiConsumer<T, FileObject> fileObjectConsumer) {
+
+        List<ClassDefSnippet> classDefs = generatedClasses.stream().map(generatedClass -> generatedClass.classDef).collect(toList());
+        List<String> contents = generatedClasses.stream().map(generatedClass -> generatedClass.content).collect(toList());
+        List<FileObject> fileObjects = ORMConverterUtil.writeSnippets(classDefs, contents, destDir);
+        if (fileObjectConsumer != null) {
+            for (int i = 0; i < javaClasses.size(); i++) {
+                fileObjectConsumer.accept(javaClasses.get(i), fileObjects.get(i));
+            }
+        }
     }
 
-    private void generateIdClasses(DefaultClass defaultClass) throws InvalidDataException, IOException {
-        ClassDefSnippet classDef = new DefaultClassGenerator(defaultClass, packageName).getClassDef();
-        classesRepository.addWritableSnippet(ClassType.DEFAULT_CLASS, classDef);
-        ORMConverterUtil.writeSnippet(classDef, destDir);
+    /**
+     * @param parallelism the number of classes generated concurrently, one
+     * for sequential generation and zero or less for the number of available
+     * processors, overrides the parallelism of the generation context.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
     }
 
     private List<ClassDefSnippet> getPUXMLEntries() {
@@ -223,7 +338,7 @@ public class ClassGeneratorService implements ModuleGenerator {
             existingFile = root.getFileObject(String.format(pathTemplate, javaClass.getClazz()));
         }
         if (existingFile != null) {
-            try {
+            try (GenerationProfile.Span span = GenerationProfile.phase("sync")) {
                 Optional<CompilationUnit> existingSourceOpt = sourceExplorer.createCompilationUnit(existingFile);
                 if (existingSourceOpt.isPresent()) {
                     JavaClassSyncHandler
@@ -242,4 +357,15 @@ public class ClassGeneratorService implements ModuleGenerator {
         }
     }
 
+    private static class GeneratedClass {
+
+        private final ClassDefSnippet classDef;
+        private final String content;
+
+        private GeneratedClass(ClassDefSnippet classDef, String content) {
+            this.classDef = classDef;
+            this.content = content;
+        }
+    }
+
 }
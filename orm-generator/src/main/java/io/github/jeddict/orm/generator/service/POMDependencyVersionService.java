@@ -21,8 +21,11 @@ import io.github.jeddict.jcode.task.ITaskSupervisor;
 import io.github.jeddict.jcode.util.POMManager;
 import io.github.jeddict.jpa.spec.EntityMappings;
 import io.github.jeddict.orm.generator.spec.ModuleGenerator;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import org.openide.util.lookup.ServiceProvider;
 
 @ServiceProvider(service = ModuleGenerator.class)
@@ -39,6 +42,16 @@ public class POMDependencyVersionService implements ModuleGenerator {
         }
     }
 
+    @Override
+    public Set<String> getInputs() {
+        return emptySet();
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return singleton(POM);
+    }
+
     private void updatePlugin(POMManager manager) {
         String groupId = "org.apache.maven.plugins";
         String artifactId = "maven-compiler-plugin";
@@ -24,14 +24,21 @@ import static io.github.jeddict.jcode.jpa.PersistenceHelper.JTA_VALUE;
 import static io.github.jeddict.jcode.jpa.PersistenceHelper.RESOURCE_LOCAL_VALUE;
 import io.github.jeddict.jcode.jpa.PersistenceProviderType;
 import io.github.jeddict.jcode.task.ITaskSupervisor;
+import io.github.jeddict.jcode.util.GenerationOutput;
 import io.github.jeddict.jpa.spec.EntityMappings;
 import io.github.jeddict.orm.generator.IPersistenceXMLGenerator;
 import io.github.jeddict.orm.generator.util.ORMConvLogger;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.SourceGroup;
+import org.netbeans.modules.j2ee.persistence.api.PersistenceLocation;
+import org.netbeans.modules.j2ee.persistence.dd.PersistenceMetadata;
 import org.netbeans.modules.j2ee.persistence.dd.common.Persistence;
 import org.netbeans.modules.j2ee.persistence.dd.common.PersistenceUnit;
 import org.netbeans.modules.j2ee.persistence.dd.common.Properties;
@@ -40,12 +47,17 @@ import static org.netbeans.modules.j2ee.persistence.provider.Provider.TABLE_GENE
 import org.netbeans.modules.j2ee.persistence.provider.ProviderUtil;
 import org.netbeans.modules.j2ee.persistence.unit.PUDataObject;
 import org.netbeans.modules.j2ee.persistence.wizard.Util;
+import org.netbeans.modules.schema2beans.BaseBean;
+import org.netbeans.modules.schema2beans.Schema2BeansException;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
 import org.openide.util.lookup.ServiceProvider;
 
 @ServiceProvider(service = IPersistenceXMLGenerator.class)
 public class PersistenceXMLGenerator implements IPersistenceXMLGenerator{
 
     private static final Logger LOGGER = ORMConvLogger.getLogger(PersistenceXMLGenerator.class);
+    private static final String PERSISTENCE_XML = "persistence.xml";
 
     //Reference : org.netbeans.modules.j2ee.persistence.wizard.unit.PersistenceUnitWizard.instantiateWProgress
     @Override
@@ -63,68 +75,15 @@ public class PersistenceXMLGenerator implements IPersistenceXMLGenerator{
         }
 
         try {
-            PUDataObject pud = ProviderUtil.getPUDataObject(project);
-            String version = pud.getPersistence().getVersion();
-            boolean existFile = false;
-            PersistenceUnit punit = null;
-            if (pud.getPersistence().sizePersistenceUnit() != 0) {
-                for (PersistenceUnit persistenceUnit_In : pud.getPersistence().getPersistenceUnit()) {
-                    if (persistenceUnit_In.getName().equalsIgnoreCase(puName)) {
-                        punit = persistenceUnit_In;
-                        existFile = true;
-                        break;
-                    }
-                }
+            if (GenerationOutput.getCurrent().isVirtual()) {
+                generateVirtualPersistenceXML(project, puName, puProvider, classNames);
+                return;
             }
-            if (!existFile) {
-                if (Persistence.VERSION_2_1.equals(version)) {
-                    punit = (PersistenceUnit) new org.netbeans.modules.j2ee.persistence.dd.persistence.model_2_1.PersistenceUnit();
-                } else if (Persistence.VERSION_2_0.equals(version)) {
-                    punit = (PersistenceUnit) new org.netbeans.modules.j2ee.persistence.dd.persistence.model_2_0.PersistenceUnit();
-                } else {//currently default 1.0
-                    punit = (PersistenceUnit) new org.netbeans.modules.j2ee.persistence.dd.persistence.model_1_0.PersistenceUnit();
-                }
-                Properties properties = punit.newProperties();
-                punit.setProperties(properties);
-
-                if (!Util.isJavaSE(project)) {// if (Util.isContainerManaged(project)) {
-                    punit.setTransactionType(JTA_VALUE);
-                    punit.setExcludeUnlistedClasses(false);
-
-                    Property property = properties.newProperty();
-                    property.setName(DATABASE_ACTION);
-                    property.setValue("drop-and-create");
-                    properties.addProperty2(property);
-//                    punit.setJtaDataSource("jdbc/sample"); // custom gui will be added in future release for DataSource , JTA
-                } else {
-                    punit.setTransactionType(RESOURCE_LOCAL_VALUE);
-
-                    Property property = properties.newProperty();
-                    property.setName(JDBC_URL);
-                    property.setValue("jdbc:derby://localhost:1527/sample");
-                    properties.addProperty2(property);
-
-                    property = properties.newProperty();
-                    property.setName(JDBC_PASSWORD);
-                    property.setValue("app");
-                    properties.addProperty2(property);
-
-                    property = properties.newProperty();
-                    property.setName(JDBC_DRIVER);
-                    property.setValue("org.apache.derby.jdbc.ClientDriver");
-                    properties.addProperty2(property);
-
-                    property = properties.newProperty();
-                    property.setName(JDBC_USER);
-                    property.setValue("app");
-                    properties.addProperty2(property);
-                }
-
-                punit.setName(puName);
-                punit.setProvider(puProvider);
-                ProviderUtil.setTableGeneration(punit, TABLE_GENERATION_CREATE, project);
+            PUDataObject pud = ProviderUtil.getPUDataObject(project);
+            PersistenceUnit punit = getPersistenceUnit(pud.getPersistence(), puName);
+            if (punit == null) {
+                punit = createPersistenceUnit(pud.getPersistence().getVersion(), project, puName, puProvider);
                 pud.addPersistenceUnit(punit);
-
             }
             for (String entityClass : classNames) { // run for both exist & non-exist-persistence
                 pud.addClass(punit, entityClass, false);
@@ -135,4 +94,104 @@ public class PersistenceXMLGenerator implements IPersistenceXMLGenerator{
         }
     }
 
+    /**
+     * Writes the persistence.xml to the virtual output, the existing
+     * persistence.xml is copied and not modified.
+     */
+    private void generateVirtualPersistenceXML(
+            Project project,
+            String puName,
+            String puProvider,
+            List<String> classNames) throws IOException, Schema2BeansException {
+
+        FileObject location = PersistenceLocation.getLocation(project);
+        FileObject puFile = location == null ? null : location.getFileObject(PERSISTENCE_XML);
+        Persistence persistence;
+        File target;
+        if (puFile != null) {
+            persistence = (Persistence) ((BaseBean) PersistenceMetadata.getDefault().getRoot(puFile)).clone();
+            target = FileUtil.toFile(puFile);
+        } else {
+            persistence = new org.netbeans.modules.j2ee.persistence.dd.persistence.model_2_1.Persistence();
+            persistence.setVersion(Persistence.VERSION_2_1);
+            File locationDir = location != null ? FileUtil.toFile(location)
+                    : new File(FileUtil.toFile(project.getProjectDirectory()), "src/main/resources/META-INF");
+            target = new File(locationDir, PERSISTENCE_XML);
+        }
+        PersistenceUnit punit = getPersistenceUnit(persistence, puName);
+        if (punit == null) {
+            punit = createPersistenceUnit(persistence.getVersion(), project, puName, puProvider);
+            persistence.addPersistenceUnit(punit);
+        }
+        List<String> existingClasses = Arrays.asList(punit.getClass2());
+        for (String entityClass : classNames) {
+            if (!existingClasses.contains(entityClass)) {
+                punit.addClass2(entityClass);
+            }
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ((BaseBean) persistence).write(content);
+        GenerationOutput.getCurrent().write(target, content.toByteArray());
+    }
+
+    private PersistenceUnit getPersistenceUnit(Persistence persistence, String puName) {
+        for (PersistenceUnit persistenceUnit : persistence.getPersistenceUnit()) {
+            if (persistenceUnit.getName().equalsIgnoreCase(puName)) {
+                return persistenceUnit;
+            }
+        }
+        return null;
+    }
+
+    private PersistenceUnit createPersistenceUnit(String version, Project project, String puName, String puProvider) {
+        PersistenceUnit punit;
+        if (Persistence.VERSION_2_1.equals(version)) {
+            punit = (PersistenceUnit) new org.netbeans.modules.j2ee.persistence.dd.persistence.model_2_1.PersistenceUnit();
+        } else if (Persistence.VERSION_2_0.equals(version)) {
+            punit = (PersistenceUnit) new org.netbeans.modules.j2ee.persistence.dd.persistence.model_2_0.PersistenceUnit();
+        } else {//currently default 1.0
+            punit = (PersistenceUnit) new org.netbeans.modules.j2ee.persistence.dd.persistence.model_1_0.PersistenceUnit();
+        }
+        Properties properties = punit.newProperties();
+        punit.setProperties(properties);
+
+        if (!Util.isJavaSE(project)) {// if (Util.isContainerManaged(project)) {
+            punit.setTransactionType(JTA_VALUE);
+            punit.setExcludeUnlistedClasses(false);
+
+            Property property = properties.newProperty();
+            property.setName(DATABASE_ACTION);
+            property.setValue("drop-and-create");
+            properties.addProperty2(property);
+//            punit.setJtaDataSource("jdbc/sample"); // custom gui will be added in future release for DataSource , JTA
+        } else {
+            punit.setTransactionType(RESOURCE_LOCAL_VALUE);
+
+            Property property = properties.newProperty();
+            property.setName(JDBC_URL);
+            property.setValue("jdbc:derby://localhost:1527/sample");
+            properties.addProperty2(property);
+
+            property = properties.newProperty();
+            property.setName(JDBC_PASSWORD);
+            property.setValue("app");
+            properties.addProperty2(property);
+
+            property = properties.newProperty();
+            property.setName(JDBC_DRIVER);
+            property.setValue("org.apache.derby.jdbc.ClientDriver");
+            properties.addProperty2(property);
+
+            property = properties.newProperty();
+            property.setName(JDBC_USER);
+            property.setValue("app");
+            properties.addProperty2(property);
+        }
+
+        punit.setName(puName);
+        punit.setProvider(puProvider);
+        ProviderUtil.setTableGeneration(punit, TABLE_GENERATION_CREATE, project);
+        return punit;
+    }
+
 }
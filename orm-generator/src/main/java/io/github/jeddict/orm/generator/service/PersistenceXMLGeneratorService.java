@@ -16,7 +16,11 @@
 package io.github.jeddict.orm.generator.service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import static java.util.Collections.singleton;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.SourceGroup;
 import io.github.jeddict.jcode.task.ITaskSupervisor;
@@ -48,6 +52,16 @@ public class PersistenceXMLGeneratorService implements ModuleGenerator {
                 .generatePersistenceXML(task, project, sourceGroup, entityMappings, classNames);
     }
 
+    @Override
+    public Set<String> getInputs() {
+        return new HashSet<>(Arrays.asList(ENTITY_MAPPINGS, JAVA_CLASSES));
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return singleton(PERSISTENCE_XML);
+    }
+
     private List<ClassDefSnippet> getPUXMLEntries() {
         List<WritableSnippet> entitySnippets = classesRepository.getWritableSnippets(ClassType.ENTITY_CLASS);
         List<ClassDefSnippet> classDefs = new ArrayList<>();
@@ -18,6 +18,8 @@ package io.github.jeddict.orm.generator.service.packageinfo;
 import io.github.jeddict.collaborate.issues.ExceptionUtils;
 import java.io.File;
 import java.io.IOException;
+import static java.util.Collections.singleton;
+import java.util.Set;
 import io.github.jeddict.util.StringUtils;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.SourceGroup;
@@ -58,4 +60,14 @@ public class PackageInfoModuleGeneratorImpl implements ModuleGenerator {
         }
     }
 
+    @Override
+    public Set<String> getInputs() {
+        return singleton(ENTITY_MAPPINGS);
+    }
+
+    @Override
+    public Set<String> getOutputs() {
+        return singleton(PACKAGE_INFO);
+    }
+
 }
@@ -18,7 +18,11 @@ package io.github.jeddict.orm.generator.service.staticmetamodel;
 import io.github.jeddict.collaborate.issues.ExceptionUtils;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import static java.util.Collections.singleton;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.SourceGroup;
@@ -36,13 +40,13 @@ import io.github.jeddict.orm.generator.spec.ModuleGenerator;
 import io.github.jeddict.orm.generator.util.ClassType;
 import io.github.jeddict.orm.generator.util.ClassesRepository;
 import io.github.jeddict.orm.generator.util.ORMConverterUtil;
+import io.github.jeddict.orm.generator.util.ParallelGenerator;
 import org.openide.filesystems.FileUtil;
 import org.openide.util.lookup.ServiceProvider;
 
 @ServiceProvider(service = ModuleGenerator.class)
 public class StaticModelModuleGeneratorImpl implements ModuleGenerator {
 
-    private Set<StaticMetamodelGenerator> staticMetamodelClass;//Required Generation based on inheritance means if any entity metamodel is generated then its super class metamodel must be generated either user want or not .
     private io.github.jeddict.jcode.task.ITaskSupervisor task;
     private final ClassesRepository classesRepository = ClassesRepository.getInstance();
     private String packageName;
@@ -54,7 +58,6 @@ public class StaticModelModuleGeneratorImpl implements ModuleGenerator {
         if (!entityMappings.getGenerateStaticMetamodel()) {
             return;
         }
-        this.staticMetamodelClass = new HashSet<>();
         this.task = task;
         destDir = FileUtil.toFile(sourceGroup.getRootFolder());
         this.entityPackageName = entityMappings.getPackage();
@@ -63,49 +66,75 @@ public class StaticModelModuleGeneratorImpl implements ModuleGenerator {
             this.packageName = entityPackageName;
         }
         task.log(Console.wrap("Generating StaticModel Class : " , FG_DARK_RED, BOLD), true);
-        try {
-            for (JavaClass javaClass : entityMappings.getJavaClass()) {
-                    generateStaticMetamodel((ManagedClass) javaClass);
-            }
-            flushStaticMetamodel();
+        try (ParallelGenerator parallelGenerator = new ParallelGenerator(ParallelGenerator.getParallelism())) {
+            generateStaticMetamodels(getInheritanceOrder(entityMappings.getManagedClass()), parallelGenerator);
         } catch (InvalidDataException | IOException ex) {
             ExceptionUtils.printStackTrace(ex);
         }
     }
 
-    private void generateStaticMetamodel(ManagedClass managedClass) throws InvalidDataException, IOException {
-            StaticMetamodelGenerator staticMetamodel = new StaticMetamodelGenerator(managedClass, entityPackageName, packageName);
-            ClassDefSnippet staticMetamodelClassDef = staticMetamodel.getClassDef();
-            classesRepository.addWritableSnippet(ClassType.STATIC_METAMODEL_CLASS, staticMetamodelClassDef);
-            task.log(managedClass.getClazz() + "_", true);
-            ORMConverterUtil.writeSnippet(staticMetamodelClassDef, destDir);
+    @Override
+    public Set<String> getInputs() {
+        return singleton(ENTITY_MAPPINGS);
+    }
 
-            if (staticMetamodelClass.contains(staticMetamodel)) {
-                staticMetamodelClass.remove(staticMetamodel);
-            }
-            if (managedClass.getSuperclass() != null) {
-                StaticMetamodelGenerator staticMetamodelSuperClass = new StaticMetamodelGenerator(managedClass, entityPackageName, packageName);
-                staticMetamodelClass.add(staticMetamodelSuperClass);
-            }
+    @Override
+    public Set<String> getOutputs() {
+        return singleton(STATIC_METAMODEL);
     }
 
-    private void flushStaticMetamodel() throws InvalidDataException, IOException {
-        for (StaticMetamodelGenerator staticMetamodel : staticMetamodelClass) {
-            flushStaticMetamodel(staticMetamodel);
+    /**
+     * Metamodel of a class is required for the metamodel of its sub classes
+     * (X_ extends S_), so the super classes are included even if not listed.
+     *
+     * @return the managed classes and their super classes, each class once and
+     * after its super class, otherwise in the given order.
+     */
+    static List<ManagedClass> getInheritanceOrder(List<ManagedClass> managedClasses) {
+        Set<ManagedClass> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ManagedClass> ordered = new ArrayList<>(managedClasses.size());
+        for (ManagedClass managedClass : managedClasses) {
+            addInheritanceOrder(managedClass, visited, ordered);
         }
-        staticMetamodelClass = null;
+        return ordered;
     }
 
-    private void flushStaticMetamodel(StaticMetamodelGenerator staticMetamodel) throws InvalidDataException, IOException {
-        ClassDefSnippet staticMetamodelClassDef = staticMetamodel.getClassDef();
-        classesRepository.addWritableSnippet(ClassType.STATIC_METAMODEL_CLASS, staticMetamodelClassDef);
-        task.log(staticMetamodel.getManagedClass().getClazz(), true);
-        ORMConverterUtil.writeSnippet(staticMetamodelClassDef, destDir);
+    private static void addInheritanceOrder(ManagedClass managedClass, Set<ManagedClass> visited, List<ManagedClass> ordered) {
+        if (!visited.add(managedClass)) {
+            return;
+        }
+        JavaClass superclass = managedClass.getSuperclass();
+        if (superclass instanceof ManagedClass) {
+            addInheritanceOrder((ManagedClass) superclass, visited, ordered);
+        }
+        ordered.add(managedClass);
+    }
 
-        if (staticMetamodel.getManagedClass().getSuperclass() != null) {
-            StaticMetamodelGenerator staticMetamodelSuperClass = new StaticMetamodelGenerator((ManagedClass) staticMetamodel.getManagedClass().getSuperclass(), entityPackageName, packageName);
-            flushStaticMetamodel(staticMetamodelSuperClass);
+    /**
+     * Generates the metamodel of each class once. Metamodel refers the
+     * metamodel of super class only by name, so all metamodels are independent
+     * and generated on the bounded fork-join pool, if any, while log and
+     * registration remain in inheritance order.
+     */
+    private void generateStaticMetamodels(List<ManagedClass> managedClasses, ParallelGenerator parallelGenerator) throws InvalidDataException, IOException {
+        if (!parallelGenerator.isParallel()) {
+            for (ManagedClass managedClass : managedClasses) {
+                task.log(managedClass.getClazz() + "_", true);
+                classesRepository.addWritableSnippet(ClassType.STATIC_METAMODEL_CLASS, generateStaticMetamodel(managedClass));
+            }
+            return;
         }
+
+        managedClasses.forEach(managedClass -> task.log(managedClass.getClazz() + "_", true));
+        List<ClassDefSnippet> classDefs = parallelGenerator.generate(managedClasses, this::generateStaticMetamodel);
+        classDefs.forEach(classDef -> classesRepository.addWritableSnippet(ClassType.STATIC_METAMODEL_CLASS, classDef));
+    }
+
+    private ClassDefSnippet generateStaticMetamodel(ManagedClass managedClass) throws InvalidDataException, IOException {
+        StaticMetamodelGenerator staticMetamodel = new StaticMetamodelGenerator(managedClass, entityPackageName, packageName);
+        ClassDefSnippet staticMetamodelClassDef = staticMetamodel.getClassDef();
+        ORMConverterUtil.writeSnippet(staticMetamodelClassDef, destDir);
+        return staticMetamodelClassDef;
     }
 
 }
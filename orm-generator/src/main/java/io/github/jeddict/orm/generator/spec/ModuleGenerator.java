@@ -19,9 +19,52 @@ import org.netbeans.api.project.Project;
 import org.netbeans.api.project.SourceGroup;
 import io.github.jeddict.jcode.task.ITaskSupervisor;
 import io.github.jeddict.jpa.spec.EntityMappings;
+import java.util.Set;
 
+/**
+ * Generator of a module of the JPA source code.
+ *
+ * Generator declares the outputs it reads and writes, generators without
+ * common outputs are independent and may run concurrently. Generators which
+ * don't declare the outputs run after all preceding and before all following
+ * generators in lookup order.
+ */
 public interface ModuleGenerator {
 
+    /**
+     * The entity mappings, written by the generators which update the model
+     * e.g sync of existing source code.
+     */
+    String ENTITY_MAPPINGS = "entity-mappings";
+
+    /**
+     * The entity, mapped superclass, embeddable, id and bean classes.
+     */
+    String JAVA_CLASSES = "java-classes";
+
+    String STATIC_METAMODEL = "static-metamodel";
+
+    String PACKAGE_INFO = "package-info";
+
+    String PERSISTENCE_XML = "persistence.xml";
+
+    String POM = "pom.xml";
+
     void generate(ITaskSupervisor task, Project project, SourceGroup sourceGroup, EntityMappings parsedEntityMappings);
 
+    /**
+     * @return the outputs of other generators read by the generator or null
+     * if not declared
+     */
+    default Set<String> getInputs() {
+        return null;
+    }
+
+    /**
+     * @return the outputs written by the generator or null if not declared
+     */
+    default Set<String> getOutputs() {
+        return null;
+    }
+
 }
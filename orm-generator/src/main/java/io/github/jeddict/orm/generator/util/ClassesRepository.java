@@ -21,6 +21,11 @@ import java.util.List;
 import java.util.Map;
 import io.github.jeddict.orm.generator.spec.WritableSnippet;
 
+/**
+ * Snippets of the generated classes, shared by the module generators.
+ *
+ * Repository is thread-safe, snippets are listed in order of registration.
+ */
 public class ClassesRepository {
 
     private static ClassesRepository instance = new ClassesRepository();
@@ -35,7 +40,7 @@ public class ClassesRepository {
         return instance;
     }
 
-    public void addWritableSnippet(ClassType classType, WritableSnippet writableSnippet) {
+    public synchronized void addWritableSnippet(ClassType classType, WritableSnippet writableSnippet) {
 
         List<WritableSnippet> writableSnippets = repository.get(classType);
 
@@ -48,11 +53,11 @@ public class ClassesRepository {
         repository.put(classType, writableSnippets);
     }
 
-    public void clear() {
+    public synchronized void clear() {
         repository = new HashMap<>();
     }
 
-    public WritableSnippet getWritableSnippet(ClassHelper classHelper) {
+    public synchronized WritableSnippet getWritableSnippet(ClassHelper classHelper) {
 
         for (List<WritableSnippet> values : repository.values()) {
 
@@ -67,14 +72,14 @@ public class ClassesRepository {
         return null;
     }
 
-    public List<WritableSnippet> getWritableSnippets(ClassType classType) {
+    public synchronized List<WritableSnippet> getWritableSnippets(ClassType classType) {
         List<WritableSnippet> writableSnippets = repository.get(classType);
 
         if (writableSnippets == null) {
             return new ArrayList<>();
         }
 
-        return writableSnippets;
+        return new ArrayList<>(writableSnippets);
     }
 
     private WritableSnippet searchSnippet(
@@ -18,7 +18,6 @@ package io.github.jeddict.orm.generator.util;
 import static io.github.jeddict.jcode.util.Constants.LANG_PACKAGE;
 import java.util.Collection;
 import java.util.TreeSet;
-import static java.util.stream.Collectors.toSet;
 import static io.github.jeddict.util.StringUtils.isNotBlank;
 
 public class ImportSet extends TreeSet<String> {
@@ -33,7 +32,11 @@ public class ImportSet extends TreeSet<String> {
     
     @Override
     public boolean addAll(Collection<? extends String> fqns){
-       return super.addAll(fqns.stream().filter(this::valid).collect(toSet()));
+        boolean modified = false;
+        for (String fqn : fqns) {
+            modified |= add(fqn);
+        }
+        return modified;
     }
     
     private boolean valid(String fqn){
@@ -15,34 +15,27 @@
  */
 package io.github.jeddict.orm.generator.util;
 
-import static io.github.jeddict.jcode.util.FileUtil.expandTemplate;
+import io.github.jeddict.jcode.util.GenerationContext;
+import io.github.jeddict.jcode.util.GenerationManifest;
+import io.github.jeddict.jcode.util.GenerationOutput;
+import io.github.jeddict.jcode.util.GenerationProfile;
+import io.github.jeddict.jcode.util.JavaSourceFormatter;
+import io.github.jeddict.jcode.util.TemplateBuffer;
+import io.github.jeddict.jcode.util.TemplateRenderer;
 import io.github.jeddict.orm.generator.compiler.InvalidDataException;
 import io.github.jeddict.orm.generator.spec.WritableSnippet;
-import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.nio.charset.Charset;
-import static java.nio.charset.StandardCharsets.UTF_8;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.StyledDocument;
-import org.netbeans.editor.BaseDocument;
-import org.netbeans.modules.editor.indent.api.Reformat;
-import org.openide.cookies.EditorCookie;
-import org.openide.cookies.SaveCookie;
 import org.openide.filesystems.FileObject;
-import org.openide.filesystems.FileSystem;
 import org.openide.filesystems.FileUtil;
-import org.openide.loaders.DataObject;
 import org.openide.util.Exceptions;
 
 public class ORMConverterUtil {
@@ -72,45 +65,6 @@ public class ORMConverterUtil {
     public static final String UNDERSCORE = "_";
     public static final String EQUAL = "=";
 
-    public static File createFile(String parentDir, String childDir,
-            String fileName) throws IOException {
-
-        if (childDir == null) {
-            return createFile(parentDir, fileName);
-        }
-
-        File dir = new File(parentDir, childDir);
-        if (!dir.exists()) {
-            dir.mkdirs();
-        }
-
-        File file = new File(dir, fileName);
-        if (!file.exists()) {
-            file.delete();
-        }
-        file.createNewFile();
-
-        return file;
-    }
-
-    public static File createFile(String parentDir, String fileName)
-            throws IOException {
-
-        File dir = new File(parentDir);
-
-        if (!dir.exists()) {
-            dir.mkdirs();
-        }
-
-        File file = new File(dir, fileName);
-
-        if (!file.exists()) {
-            file.createNewFile();
-        }
-
-        return file;
-    }
-
     public static Collection<String> eliminateSamePkgImports(String classPackage, Collection<String> imports) {
 
         List<String> uniqueImports = new ArrayList<>();
@@ -180,12 +134,10 @@ public class ORMConverterUtil {
     }
 
     public static String writeToTemplate(String templateName, Map<String, Object> context) throws Exception {
-        ByteArrayOutputStream generatedClass = new ByteArrayOutputStream();
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(generatedClass, UTF_8))) {
-            expandTemplate(templateName, writer, context);
-            writer.flush();
+        try (TemplateBuffer generatedClass = TemplateBuffer.acquire()) {
+            TemplateRenderer.render(templateName, context, generatedClass);
+            return generatedClass.toString();
         }
-        return generatedClass.toString();
     }
 
     public static Collection<String> processedImportStatements(Collection<String> imports) {
@@ -197,115 +149,81 @@ public class ORMConverterUtil {
         return processedStatements;
     }
 
-    public static void writeContent(String content, File file)
-            throws IOException {
-
-        writeContent(content, Charset.defaultCharset().toString(), file);
-    }
-
-    public static void writeContent(String content, String charset, File file)
-            throws IOException {
-
-        if (file.isDirectory()) {
-            throw new IOException("Cannot write content to directory");
-        }
-
-        if (file.exists()) {
-            file.createNewFile();
-        }
-
-        FileOutputStream fos = new FileOutputStream(file);
-        fos.write(content.getBytes(charset));
-        fos.close();
-    }
-
     public static FileObject writeSnippet(WritableSnippet writableSnippet, File destDir)
             throws InvalidDataException, IOException {
 
-        File sourceFile = ORMConverterUtil.createFile(
-                destDir.getAbsolutePath(),
-                writableSnippet.getClassHelper().getSourcePath(),
-                writableSnippet.getClassHelper().getClassNameWithSourceSuffix());
-        final FileObject sourceFileObject = FileUtil.toFileObject(sourceFile);
-       
+        String content;
         try {
-            String content = writableSnippet.getSnippet();
-            ORMConverterUtil.writeContent(getFormattedText(content, "java"), sourceFile);
-        } catch (InvalidDataException | IOException ex) {
+            content = getSnippet(writableSnippet);
+        } catch (InvalidDataException ex) {
             Exceptions.printStackTrace(ex);
+            content = null;
         }
+        return writeSnippets(Collections.singletonList(writableSnippet), Collections.singletonList(content), destDir).get(0);
+    }
 
-        return sourceFileObject;
+    /**
+     * @return the unformatted source of snippet
+     */
+    public static String getSnippet(WritableSnippet writableSnippet) throws InvalidDataException {
+        try (GenerationProfile.Span span = GenerationProfile.phase("snippet")) {
+            return writableSnippet.getSnippet();
+        }
     }
 
-    public static String getFormattedText(String textToFormat, String ext) {
-        try {
-            FileSystem fs = FileUtil.createMemoryFileSystem();
-            FileObject root = fs.getRoot();
-            String fileName = FileUtil.findFreeFileName(root, "module-info", ext);// NOI18N // workaround
-            FileObject data = FileUtil.createData(root, fileName + "." + ext);// NOI18N
-            Writer writer = new OutputStreamWriter(data.getOutputStream(), "UTF8");// NOI18N
-            try {
-                writer.append(textToFormat);
-                writer.flush();
-            } finally {
-                writer.close();
+    /**
+     * Writes the snippets, the sources not skipped by the generation manifest
+     * are formatted in one batch.
+     *
+     * @param writableSnippets the snippets
+     * @param contents the unformatted sources of snippets (see
+     * {@link #getSnippet(WritableSnippet)}), null if snippet is not generated
+     * @param destDir the source root
+     * @return the file objects in order of snippets, null for virtual output
+     */
+    public static List<FileObject> writeSnippets(List<? extends WritableSnippet> writableSnippets, List<String> contents, File destDir) {
+        GenerationContext context = GenerationContext.getCurrent();
+        GenerationOutput output = context.getOutput();
+        GenerationManifest manifest = output.isVirtual() ? null : context.getManifest();
+
+        List<File> sourceFiles = new ArrayList<>(writableSnippets.size());
+        List<File> formatFiles = new ArrayList<>();
+        List<String> formatContents = new ArrayList<>();
+        for (int i = 0; i < writableSnippets.size(); i++) {
+            WritableSnippet writableSnippet = writableSnippets.get(i);
+            String sourcePath = writableSnippet.getClassHelper().getSourcePath();
+            String sourceName = writableSnippet.getClassHelper().getClassNameWithSourceSuffix();
+            // the file is created by the output on write, never left empty or partially written
+            File sourceFile = new File(sourcePath == null ? destDir : new File(destDir, sourcePath), sourceName);
+            sourceFiles.add(sourceFile);
+            String content = contents.get(i);
+            if (content != null && (manifest == null || !manifest.isUpToDate(sourceFile, content))) {
+                formatFiles.add(sourceFile);
+                formatContents.add(content);
             }
-            DataObject dob = DataObject.find(data);
-            EditorCookie ec = dob.getLookup().lookup(EditorCookie.class);
-            if (ec != null) {
-                final StyledDocument fmtDoc = ec.openDocument();
-                final Reformat fmt = Reformat.get(fmtDoc);
-                fmt.lock();
-                try {
-                    final Runnable runnable = () -> {
-                        try {
-                            fmt.reformat(0, fmtDoc.getLength());
-                        } catch (BadLocationException ex) {
-                        }
-                    };
-                    if (fmtDoc instanceof BaseDocument) {
-                        ((BaseDocument) fmtDoc).runAtomic(runnable);
-                    } else {
-                        runnable.run();
-                    }
-                } finally {
-                    fmt.unlock();
-                }
-                SaveCookie save = dob.getLookup().lookup(SaveCookie.class);
-                if (save != null) {
-                    save.save();
-                }
-                final String text = fmtDoc.getText(0, fmtDoc.getLength());
-                StringBuilder declText = new StringBuilder();
-                final int len = text.length();
-                int start = 0;
-                int end = len - 1;
-                // skip all whitespaces in the beginning and end of formatted text
-                for (; start < len && Character.isWhitespace(text.charAt(start)); start++) {
-                }
-                for (; end > start && Character.isWhitespace(text.charAt(end)); end--) {
-                }
-                
-                for (int i = start; i <= end; i++) {
-                    final char charAt = text.charAt(i);
-                    if (charAt == '\n') { 
-                        if (i <= end) {
-                            declText.append(charAt);
-                        }
-                    } else {
-                        declText.append(charAt);
-                    }
+        }
+
+        List<String> formattedContents;
+        try (GenerationProfile.Span span = GenerationProfile.phase("format")) {
+            formattedContents = JavaSourceFormatter.format(formatContents, FileUtil.toFileObject(destDir));
+        }
+        for (int i = 0; i < formatFiles.size(); i++) {
+            File sourceFile = formatFiles.get(i);
+            try {
+                boolean changed = output.write(sourceFile, formattedContents.get(i).getBytes(Charset.defaultCharset()));
+                if (manifest != null) {
+                    manifest.record(sourceFile, formatContents.get(i), changed);
                 }
-                return declText.toString();
+            } catch (IOException ex) {
+                Exceptions.printStackTrace(ex);
             }
-            data.delete();
-        } catch (BadLocationException | IOException ex) {
-            ex.printStackTrace(System.err);
-        } catch (Exception ex) {
-            ex.printStackTrace(System.err);
         }
-        return textToFormat;
+
+        List<FileObject> fileObjects = new ArrayList<>(sourceFiles.size());
+        for (File sourceFile : sourceFiles) {
+            fileObjects.add(output.isVirtual() ? null : FileUtil.toFileObject(sourceFile));
+        }
+        return fileObjects;
     }
 
 }
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.orm.generator.util;
+
+import io.github.jeddict.jcode.util.GenerationContext;
+import io.github.jeddict.orm.generator.compiler.InvalidDataException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Bounded fork-join pool of a generator, generates the items concurrently in
+ * the generation context of the calling thread and returns the results in
+ * item order.
+ *
+ * Parallelism is configured by the generation context, see
+ * {@link GenerationContext#getParallelism()}.
+ *
+ * @author Gaurav Gupta
+ */
+public final class ParallelGenerator implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism the number of items generated concurrently
+     */
+    public ParallelGenerator(int parallelism) {
+        int poolSize = getPoolSize(parallelism);
+        pool = poolSize > 1 ? new ForkJoinPool(poolSize) : null;
+    }
+
+    /**
+     * @return the parallelism of the generation context
+     */
+    public static int getParallelism() {
+        return GenerationContext.getCurrent().getParallelism();
+    }
+
+    /**
+     * @return the number of threads for the parallelism
+     */
+    public static int getPoolSize(int parallelism) {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return false if items are generated in sequence
+     */
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    @FunctionalInterface
+    public interface Generator<T, R> {
+
+        R generate(T item) throws InvalidDataException, IOException;
+    }
+
+    /**
+     * @return the results in item order
+     */
+    public <T, R> List<R> generate(List<T> items, Generator<T, R> generator) throws InvalidDataException, IOException {
+        if (pool == null || items.size() < 2) {
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                results.add(generator.generate(item));
+            }
+            return results;
+        }
+        GenerationContext context = GenerationContext.getCurrent();
+        try {
+            return pool.submit(() -> items
+                    .parallelStream()
+                    .map(context.wrap((T item) -> generateUnchecked(generator, item)))
+                    .collect(toList())
+            ).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof GenerationException) {
+                throw ((GenerationException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static <T, R> R generateUnchecked(Generator<T, R> generator, T item) {
+        try {
+            return generator.generate(item);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InvalidDataException ex) {
+            throw new GenerationException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static class GenerationException extends RuntimeException {
+
+        private GenerationException(InvalidDataException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized InvalidDataException getCause() {
+            return (InvalidDataException) super.getCause();
+        }
+    }
+
+}
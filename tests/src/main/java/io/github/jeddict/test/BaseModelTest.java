@@ -32,26 +32,35 @@ import static io.github.jeddict.jcode.util.Constants.JAVA_EXT;
 import static io.github.jeddict.jcode.util.Constants.JAVA_EXT_SUFFIX;
 import static io.github.jeddict.jcode.util.FileUtil.readString;
 import static io.github.jeddict.jcode.util.ProjectHelper.getFileObject;
+import static io.github.jeddict.jcode.util.ProjectHelper.getFolderSourceGroup;
+import io.github.jeddict.jcode.util.VirtualOutput;
 import io.github.jeddict.jpa.modeler.initializer.JPAModelerUtil;
 import static io.github.jeddict.jpa.modeler.initializer.JPAModelerUtil.getEntityMapping;
+import static io.github.jeddict.jpa.modeler.initializer.JPAModelerUtil.saveEntityMapping;
 import io.github.jeddict.jpa.spec.DefaultClass;
 import io.github.jeddict.jpa.spec.Embeddable;
 import io.github.jeddict.jpa.spec.Entity;
 import io.github.jeddict.jpa.spec.EntityMappings;
 import io.github.jeddict.jpa.spec.MappedSuperclass;
+import io.github.jeddict.jpa.spec.TableGenerator;
 import io.github.jeddict.jpa.spec.bean.BeanClass;
+import io.github.jeddict.jpa.spec.extend.Attribute;
+import io.github.jeddict.jpa.spec.extend.ElementCopier;
 import io.github.jeddict.jpa.spec.extend.JavaClass;
 import io.github.jeddict.jpa.spec.sync.JavaClassSyncHandler;
 import io.github.jeddict.orm.generator.compiler.def.ClassDefSnippet;
 import io.github.jeddict.orm.generator.service.BeanClassGenerator;
+import io.github.jeddict.orm.generator.service.ClassGeneratorService;
 import io.github.jeddict.orm.generator.service.ClassGenerator;
 import io.github.jeddict.orm.generator.service.DefaultClassGenerator;
 import io.github.jeddict.orm.generator.service.EmbeddableGenerator;
 import io.github.jeddict.orm.generator.service.EmbeddableIdClassGenerator;
 import io.github.jeddict.orm.generator.service.EntityGenerator;
 import io.github.jeddict.orm.generator.service.MappedSuperClassGenerator;
+import io.github.jeddict.orm.generator.util.ClassesRepository;
 import io.github.jeddict.orm.generator.util.ORMConverterUtil;
 import io.github.jeddict.reveng.klass.ClassWizardDescriptor;
+import io.github.jeddict.test.mock.MockTaskSupervisor;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
@@ -62,18 +71,33 @@ import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.net.URL;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamSource;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.netbeans.api.project.Project;
 import org.netbeans.modules.j2ee.persistence.wizard.jpacontroller.ProgressReporter;
@@ -242,6 +266,160 @@ public class BaseModelTest {
         }
     }
 
+    /**
+     * Generates the classes of model with sequential and parallel
+     * {@link ClassGeneratorService} and compares the output and log.
+     */
+    protected void testParallelGeneration(String fileName) throws Exception {
+        StringBuilder sequentialLog = new StringBuilder();
+        Map<String, byte[]> sequentialSources = generateSources(fileName, 1, sequentialLog);
+        StringBuilder parallelLog = new StringBuilder();
+        Map<String, byte[]> parallelSources = generateSources(fileName, 4, parallelLog);
+
+        assertEquals(sequentialSources.keySet(), parallelSources.keySet());
+        for (Map.Entry<String, byte[]> source : sequentialSources.entrySet()) {
+            assertArrayEquals(source.getValue(), parallelSources.get(source.getKey()),
+                    wrap("Failed : " + source.getKey() + " [" + fileName + "]", FG_DARK_RED, BOLD));
+        }
+        assertEquals(sequentialLog.toString(), parallelLog.toString());
+        System.out.println(wrap("Passed : ", FG_DARK_GREEN, BOLD)
+                + wrap(sequentialSources.size() + " sources", FG_DARK_CYAN)
+                + " [" + fileName + "]"
+        );
+    }
+
+    private Map<String, byte[]> generateSources(String fileName, int parallelism, StringBuilder log) throws Exception {
+        ProjectBuilder projectBuilder = new ProjectBuilder("class-generation-test-" + parallelism);
+        EntityMappings entityMappings = loadEntityMappings(fileName);
+        assertNotNull(entityMappings);
+        FileObject src = projectBuilder.getSrc();
+
+        ClassesRepository.getInstance().clear();
+        ClassGeneratorService generator = new ClassGeneratorService();
+        generator.setParallelism(parallelism);
+        Map<String, byte[]> sources = new TreeMap<>();
+        try (VirtualOutput output = VirtualOutput.open()) {
+            generator.generate(new MockTaskSupervisor() {
+                @Override
+                public void log(String msg, boolean newline) {
+                    log.append(msg);
+                    if (newline) {
+                        log.append('\n');
+                    }
+                }
+            }, projectBuilder.get(), getFolderSourceGroup(src), entityMappings);
+
+            Path root = FileUtil.toFile(src).toPath();
+            output.getFiles().forEach((path, content) -> sources.put(root.relativize(Paths.get(path)).toString(), content));
+        }
+        return sources;
+    }
+
+    /**
+     * Saves the model in sharded layout, reloads it and compares the content
+     * with the original model, then checks that the switch to monolithic
+     * layout removes only the fragments and that a left over fragment
+     * directory is ignored by the monolithic model.
+     */
+    protected void testShardedStorage(String fileName) throws Exception {
+        JPAModelerUtil modelerUtil = new JPAModelerUtil();
+        EntityMappings entityMappings = loadEntityMappings(fileName);
+        assertNotNull(entityMappings);
+        entityMappings.setShardedStorage(true);
+        String content = modelerUtil.getContent(entityMappings);
+
+        File modelFile = new File(Files.createTempDirectory("sharded-storage-test").toFile(), fileName);
+        saveEntityMapping(entityMappings, modelFile);
+        assertEquals(content, modelerUtil.getContent(entityMappings), "Model is modified by sharded save");
+        assertTrue(content.startsWith("<?xml"), "XML declaration is missing after sharded save");
+
+        String reloadedContent = modelerUtil.getContent(getEntityMapping(modelFile));
+        assertEquals(content, reloadedContent, "Sharded model is changed after reload [" + fileName + "]");
+
+        File fragmentDirectory = new File(modelFile.getParentFile(), fileName.substring(0, fileName.lastIndexOf('.')) + ".fragments");
+        Map<String, Long> lastModified = getLastModified(fragmentDirectory);
+        saveEntityMapping(getEntityMapping(modelFile), modelFile);
+        assertEquals(lastModified, getLastModified(fragmentDirectory), "Unchanged fragment is rewritten");
+
+        File foreignFile = new File(fragmentDirectory, "foreign.xml");
+        Files.write(foreignFile.toPath(), "<foreign/>".getBytes(UTF_8));
+        assertEquals(content, modelerUtil.getContent(getEntityMapping(modelFile)),
+                "Fragment missing in index is loaded [" + fileName + "]");
+
+        entityMappings.setShardedStorage(false);
+        String monolithicContent = modelerUtil.getContent(entityMappings);
+        saveEntityMapping(entityMappings, modelFile);
+        assertEquals(Collections.singletonList(foreignFile.getName()), Arrays.asList(fragmentDirectory.list()),
+                "Switch to monolithic layout must remove only the fragments");
+        Files.delete(foreignFile.toPath());
+
+        entityMappings.setShardedStorage(true);
+        saveEntityMapping(entityMappings, modelFile);
+        entityMappings.setShardedStorage(false);
+        Files.write(modelFile.toPath(), monolithicContent.getBytes(UTF_8));
+        assertEquals(monolithicContent, modelerUtil.getContent(getEntityMapping(modelFile)),
+                "Left over fragments are merged into monolithic model [" + fileName + "]");
+        saveEntityMapping(entityMappings, modelFile);
+        assertTrue(fragmentDirectory.isDirectory(), "Left over fragments of monolithic model are deleted on save");
+        System.out.println(wrap("Passed : ", FG_DARK_GREEN, BOLD)
+                + wrap("sharded storage", FG_DARK_CYAN)
+                + " [" + fileName + "]"
+        );
+    }
+
+    /**
+     * In memory copy of the elements must be same as the JAXB round trip, for
+     * the IDREF heavy model and for the adapter bound (validated) and
+     * <code>beforeMarshal</code> filtered values of classes and attributes.
+     */
+    protected void testElementCopy(String fileName) throws Exception {
+        JAXBContext context = JAXBContext.newInstance(EntityMappings.class, Entity.class, Attribute.class);
+        EntityMappings entityMappings = loadEntityMappings(fileName);
+        assertNotNull(entityMappings);
+        assertCopy(context, entityMappings, fileName);
+
+        for (Entity entity : entityMappings.getEntity()) {
+            entity.setTableGenerator(new TableGenerator());
+            entity.getToStringMethod();
+            for (Attribute attribute : entity.getAttributes().getAllAttribute()) {
+                attribute.getAttributeConstraints();
+            }
+            assertCopy(context, entity, fileName + '#' + entity.getClazz());
+        }
+        assertCopy(context, entityMappings, fileName);
+        System.out.println(wrap("Passed : ", FG_DARK_GREEN, BOLD)
+                + wrap("element copy", FG_DARK_CYAN)
+                + " [" + fileName + "]"
+        );
+    }
+
+    private static <T> void assertCopy(JAXBContext context, T element, String name) throws JAXBException {
+        Unmarshaller unmarshaller = context.createUnmarshaller();
+        unmarshaller.setEventHandler(event -> true); // references out of the copied graph
+        T copy = ElementCopier.copy(element, context.createMarshaller(), unmarshaller).orElse(null);
+        assertNotNull(copy, "Element is not copied in memory [" + name + "]");
+
+        String content = toXML(context, element);
+        T roundTripCopy = unmarshaller.unmarshal(new StreamSource(new StringReader(content)), (Class<T>) element.getClass()).getValue();
+        assertEquals(toXML(context, roundTripCopy), toXML(context, copy), "Copy is not same as JAXB round trip [" + name + "]");
+    }
+
+    private static <T> String toXML(JAXBContext context, T element) throws JAXBException {
+        StringWriter writer = new StringWriter();
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        marshaller.marshal(new JAXBElement<>(new QName(element.getClass().getSimpleName()), (Class<T>) element.getClass(), element), writer);
+        return writer.toString();
+    }
+
+    private static Map<String, Long> getLastModified(File directory) {
+        Map<String, Long> lastModified = new TreeMap<>();
+        for (File file : directory.listFiles()) {
+            lastModified.put(file.getName(), file.lastModified());
+        }
+        return lastModified;
+    }
+
     protected void reverseEngineeringTest(String... classes) {
         try {
             ProjectBuilder projectBuilder = new ProjectBuilder("reverse-engineering-test");
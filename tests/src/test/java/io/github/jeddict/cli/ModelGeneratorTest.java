@@ -0,0 +1,78 @@
+/**
+ * Copyright 2013-2019 the original author or authors from the Jeddict project (https://jeddict.github.io/).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.github.jeddict.cli;
+
+import static io.github.jeddict.jcode.util.Constants.JAVA_EXT_SUFFIX;
+import static io.github.jeddict.jcode.util.GenerationContext.PARALLELISM_PROPERTY;
+import static io.github.jeddict.jpa.modeler.initializer.JPAModelerUtil.getEntityMapping;
+import io.github.jeddict.jpa.spec.Entity;
+import io.github.jeddict.jpa.spec.EntityMappings;
+import io.github.jeddict.test.ProjectBuilder;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.*;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.Utilities;
+
+/**
+ *
+ * @author jGauravGupta
+ */
+public class ModelGeneratorTest {
+
+    private static final String MODEL = "/io/github/jeddict/jpa/employee/EmployeeModel.jpa";
+
+    @Test
+    void testGenerator() throws Exception {
+        ProjectBuilder projectBuilder = new ProjectBuilder("model-generator-test");
+        File src = FileUtil.toFile(projectBuilder.getSrc());
+        File model = Utilities.toFile(this.getClass().getResource(MODEL).toURI());
+
+        assertEquals(0, ModelGenerator.execute("-t", src.getPath(), "-p", "2", "--full", model.getPath()));
+        assertNull(System.getProperty(PARALLELISM_PROPERTY), "Parallelism is leaked to system properties");
+
+        EntityMappings entityMappings = getEntityMapping(model);
+        File packageDir = new File(src, entityMappings.getPackage().replace('.', File.separatorChar));
+        assertFalse(entityMappings.getEntity().isEmpty());
+        for (Entity entity : entityMappings.getEntity()) {
+            File source = new File(packageDir, entity.getClazz() + JAVA_EXT_SUFFIX);
+            assertTrue(source.isFile(), source + " not generated");
+        }
+    }
+
+    @Test
+    void testFailure() throws Exception {
+        ProjectBuilder projectBuilder = new ProjectBuilder("model-generator-failure-test");
+        File src = FileUtil.toFile(projectBuilder.getSrc());
+        File model = new File(FileUtil.toFile(projectBuilder.getProjectRoot()), "Invalid.jpa");
+        Files.write(model.toPath(), "<entity-mappings>".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1, ModelGenerator.execute("-t", src.getPath(), model.getPath()));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertEquals(2, ModelGenerator.execute());
+        assertEquals(2, ModelGenerator.execute("--unknown", "Model.jpa"));
+        assertEquals(2, ModelGenerator.execute("-p", "two", "Model.jpa"));
+    }
+
+}
@@ -29,6 +29,21 @@ public class EmployeeModelTest extends BaseModelTest {
         testModelerFile("EmployeeModel.jpa");
     }
 
+    @Test
+    void testParallelGenerator() throws Exception {
+        testParallelGeneration("EmployeeModel.jpa");
+    }
+
+    @Test
+    void testShardedStorage() throws Exception {
+        testShardedStorage("EmployeeModel.jpa");
+    }
+
+    @Test
+    void testElementCopy() throws Exception {
+        testElementCopy("EmployeeModel.jpa");
+    }
+
 //    @Test
     void testReveng() throws Exception {
         reverseEngineeringTest(